@@ -7,23 +7,31 @@ import danogl.gui.ImageReader;
 import danogl.gui.SoundReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.WindowController;
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
+import pepse.util.AssetRegistry;
+import pepse.util.FrameProfiler;
+import pepse.util.InputRecorder;
+import pepse.util.RecordedSession;
+import pepse.util.TimerWheel;
 import pepse.world.*;
+import pepse.world.chunks.ChunkManager;
+import pepse.world.daynight.DayCycle;
 import pepse.world.daynight.Night;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
+import pepse.world.hud.EnergyDisplay;
+import pepse.world.hud.Hud;
+import pepse.world.save.WorldSave;
 
-import java.awt.*;
-import java.util.HashMap;
-import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Random;
+import java.util.stream.Stream;
 
 
 import pepse.world.trees.Flora;
-import pepse.world.trees.TreeFruits;
-import pepse.world.trees.TreeLeaves;
+import pepse.world.trees.Wind;
 
 
 /**
@@ -47,17 +55,238 @@ public class PepseGameManager extends GameManager {
     private static final int POS_Y_AVATAR = 90;
 
     /**
-     * The target frame rate for the game.
+     * The target frame rate for the game, the rate it is drawn at.
      */
     private static final int TARGET_FRAME = 40;
 
     /**
-     * The entry point of the application.
+     * The system property with the number of simulation steps per second.
+     */
+    private static final String SIMULATION_RATE_PROPERTY = "pepse.simulation.rate";
+
+    /**
+     * The number of simulation steps per second when the property isn't set.
+     */
+    private static final int DEFAULT_SIMULATION_RATE = 60;
+
+    /**
+     * The lowest and highest simulation rates that can be set.
+     */
+    private static final int MIN_SIMULATION_RATE = 60;
+    private static final int MAX_SIMULATION_RATE = 120;
+
+    /**
+     * The longest frame time that is simulated, a longer frame is simulated as this long so a spike
+     * doesn't pile up steps that make the next frames slow as well.
+     */
+    private static final float MAX_FRAME_TIME = 0.25f;
+
+    /**
+     * The system property that prints the startup trace of the assets when it is set.
+     */
+    private static final String ASSET_TRACE_PROPERTY = "pepse.assets.trace";
+
+    /**
+     * The system property with the CSV file the frame profile is written to.
+     * When it isn't set the profile is only kept in memory.
+     */
+    private static final String PROFILE_FILE_PROPERTY = "pepse.profile";
+
+    /**
+     * The time between two writes of the frame profile, in seconds.
+     */
+    private static final float PROFILE_INTERVAL = 5;
+
+    /**
+     * The system property with the file the input of the session is recorded to.
+     * When it isn't set the input isn't recorded. A recorded session plays a new world that isn't
+     * saved, so its replay doesn't depend on what was in the save.
+     */
+    private static final String RECORD_FILE_PROPERTY = "pepse.record";
+
+    /**
+     * The directory the game saves the world to.
+     */
+    private static final String SAVE_DIRECTORY = "save";
+
+    /**
+     * The time between two saves of the avatar state, in seconds.
+     */
+    private static final float AVATAR_SAVE_INTERVAL = 1;
+
+    /**
+     * Streams the ground and the trees around the avatar.
+     */
+    private ChunkManager chunkManager;
+
+    /**
+     * The avatar, the world is generated around it.
+     */
+    private Avatar avatar;
+
+    /**
+     * The clock of the time of day, it moves the sun and darkens the night and the sky.
+     */
+    private DayCycle dayCycle;
+
+    /**
+     * Measures how long the parts of every frame take.
+     */
+    private final FrameProfiler profiler = createProfiler();
+
+    /**
+     * The world events, published by the avatar and the fruits.
+     */
+    private final WorldEvents events = new WorldEvents(this.profiler);
+
+    /**
+     * The wind that moves the leaves of all the trees.
+     */
+    private final Wind wind = new Wind();
+
+    /**
+     * The pools of the blocks, leaves and fruits of the world chunks.
+     */
+    private final EntityPools pools = new EntityPools();
+
+    /**
+     * The timer wheel of the delayed world events, the eaten fruits grow back through it.
+     */
+    private final TimerWheel timers = new TimerWheel();
+
+    /**
+     * The grid of the ground, the trunks and the fruits near the screen.
+     */
+    private final SpatialGrid grid = new SpatialGrid();
+
+    /**
+     * Collides the avatar with the objects of the grid.
+     */
+    private final AvatarCollisions avatarCollisions = new AvatarCollisions(this.grid);
+
+    /**
+     * The world save, the seed, the clock, the avatar and the eaten fruits are kept in it.
+     */
+    private final WorldSave save;
+
+    /**
+     * The time since the avatar state was last saved.
+     */
+    private float sinceAvatarSave;
+
+    /**
+     * The start of the session that is replayed, or null if the game isn't a replay.
+     */
+    private final RecordedSession replayed;
+
+    /**
+     * The seed the world is made from, or null to take it from the save or pick a new one.
+     */
+    private final Integer fixedSeed;
+
+    /**
+     * The input the avatar reads.
+     */
+    private UserInputListener inputListener;
+
+    /**
+     * Records the input of the session, or null if it isn't recorded.
+     */
+    private InputRecorder recorder;
+
+    /**
+     * The number of simulation steps per second.
+     */
+    private final int simulationRate;
+
+    /**
+     * The time of a simulation step, in seconds.
+     */
+    private final float stepTime;
+
+    /**
+     * The frame time that wasn't simulated yet, less than a step.
+     */
+    private float accumulator;
+
+    /**
+     * The top-left corner of the avatar after the last simulation step, and before it.
+     * The avatar is drawn between them, by how much of the next step the accumulator already has.
+     */
+    private float avatarX;
+    private float avatarY;
+    private float previousAvatarX;
+    private float previousAvatarY;
+
+    /**
+     * The width of the game window.
+     */
+    private float windowWidth;
+
+    /**
+     * Constructs a game that saves the world to a directory, and continues the world saved in it.
+     *
+     * @param saveDirectory The save directory.
+     */
+    public PepseGameManager(Path saveDirectory) {
+        this(WorldSave.open(saveDirectory), null, null);
+    }
+
+    /**
+     * Constructs a game with a new world every time, that isn't saved.
+     */
+    public PepseGameManager() {
+        this(WorldSave.none(), null, null);
+    }
+
+    /**
+     * Constructs a game with the world of a seed, that isn't saved. Used to measure the same world
+     * every time.
+     *
+     * @param seed The seed of the world.
+     */
+    public PepseGameManager(int seed) {
+        this(WorldSave.none(), null, seed);
+    }
+
+    /**
+     * Constructs a game that replays the start of a recorded session, with a world that isn't saved.
+     *
+     * @param session The start of the recorded session.
+     */
+    public PepseGameManager(RecordedSession session) {
+        this(WorldSave.none(), session, session.getSeed());
+    }
+
+    /**
+     * Constructs a game.
+     *
+     * @param save      The world save.
+     * @param replayed  The start of the session that is replayed, or null.
+     * @param fixedSeed The seed of the world, or null to take it from the save or pick a new one.
+     */
+    private PepseGameManager(WorldSave save, RecordedSession replayed, Integer fixedSeed) {
+        this.save = save;
+        this.replayed = replayed;
+        this.fixedSeed = fixedSeed;
+        this.simulationRate = replayed != null ? replayed.getSimulationRate() :
+                Math.max(MIN_SIMULATION_RATE, Math.min(MAX_SIMULATION_RATE,
+                        Integer.getInteger(SIMULATION_RATE_PROPERTY, DEFAULT_SIMULATION_RATE)));
+        this.stepTime = 1f / this.simulationRate;
+    }
+
+    /**
+     * The entry point of the application. A session that is recorded plays a new world, the save is
+     * left as it is.
      *
      * @param args The command line arguments.
      */
     public static void main(String[] args) {
-        new PepseGameManager().run();
+        if (System.getProperty(RECORD_FILE_PROPERTY) != null){
+            new PepseGameManager().run();
+        } else {
+            new PepseGameManager(Paths.get(SAVE_DIRECTORY)).run();
+        }
     }
 
     /**
@@ -73,103 +302,325 @@ public class PepseGameManager extends GameManager {
                                UserInputListener inputListener, WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         windowController.setTargetFramerate(TARGET_FRAME);
-        createSky(imageReader, windowController);
+        gameObjects().layers().shouldLayersCollide(Terrain.UNDERGROUND_LAYER, Layer.DEFAULT, false);
+        // the avatar collides with the world through the spatial grid, the engine doesn't test the world.
+        gameObjects().layers().shouldLayersCollide(Layer.STATIC_OBJECTS, Layer.DEFAULT, false);
+        gameObjects().layers().shouldLayersCollide(Layer.DEFAULT, Layer.DEFAULT, false);
+        // the images decode on worker threads while the world is generated below.
+        AssetRegistry assets = new AssetRegistry(imageReader);
+        assets.preload(Stream.of(Avatar.ASSETS, Clouds.ASSETS).flatMap(Stream::of).toArray(String[]::new));
+        GameObject sky = createSky(assets, windowController);
+        int seed = createSeed();
+        this.timers.resume(this.save.getClock());
+        this.inputListener = inputListener;
+        createDayCycle(windowController, sky);
+        Terrain terrain = createGround(windowController, seed);
+        Flora flora = createAllTrees(terrain, seed);
+        Avatar avatar = createAvatar(assets, inputListener, windowController, terrain);
+        if (this.save.hasAvatar()){
+            avatar.setTopLeftCorner(new Vector2(this.save.getAvatarX(), this.save.getAvatarY()));
+            avatar.restoreEnergy(this.save.getEnergy());
+        }
+        if (this.replayed != null){
+            avatar.setTopLeftCorner(new Vector2(this.replayed.getAvatarX(), this.replayed.getAvatarY()));
+            avatar.restoreEnergy(this.replayed.getEnergy());
+        }
+        startRecording(windowController, seed);
+        createHud(avatar);
+        // kept as both positions, so the first frame doesn't draw the avatar coming from elsewhere.
+        keepAvatarPosition();
+        keepAvatarPosition();
+        this.windowWidth = windowController.getWindowDimensions().x();
+        this.chunkManager = new ChunkManager(terrain, flora, gameObjects(), this.events, this.wind,
+                this.pools, this.grid, this.save, this.windowWidth);
+        this.chunkManager.update(this.avatar.getCenter().x());
+        if (System.getProperty(ASSET_TRACE_PROPERTY) != null){
+            System.out.println(assets.trace());
+        }
+    }
+
+    /**
+     * Updates the game. The simulation runs in steps of a fixed time, as many as the time of the
+     * frame has, so the physics and the energy of the avatar don't depend on the frame rate. Then it
+     * loads or unloads world chunks according to the avatar's position, wakes the chunks near the
+     * screen, moves the leaves that are on the screen, advances the time of day, and puts the avatar
+     * between its last two simulated positions for drawing.
+     *
+     * @param deltaTime The time elapsed since the last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        long frameStart = this.profiler.start();
+        if (this.recorder != null){
+            this.recorder.record(deltaTime, this.inputListener);
+        }
+        // the avatar was drawn between two steps, the simulation goes on from where it really is.
+        placeAvatar(this.avatarX, this.avatarY);
+        this.accumulator += Math.min(deltaTime, MAX_FRAME_TIME);
+        // the sections follow each other, the end of one is the start of the next, a clock read each.
+        long mark = frameStart;
+        while (this.accumulator >= this.stepTime) {
+            mark = step(this.stepTime, mark);
+            this.accumulator -= this.stepTime;
+        }
+        float centerX = this.avatar.getCenter().x();
+        this.chunkManager.update(centerX);
+        mark = this.profiler.lap(FrameProfiler.CHUNKS, mark);
+        this.wind.update(deltaTime, centerX - this.windowWidth / 2, centerX + this.windowWidth / 2);
+        this.profiler.stop(FrameProfiler.WIND, mark);
+        this.dayCycle.update(deltaTime);
+        saveAvatar(deltaTime);
+        interpolateAvatar(this.accumulator / this.stepTime);
+        this.profiler.stop(FrameProfiler.FRAME, frameStart);
+        this.profiler.endFrame(deltaTime, gameObjects());
+    }
+
+    /**
+     * Runs one simulation step: the delayed world events, the engine with the avatar, and the
+     * collisions of the avatar with the world around it.
+     *
+     * @param stepTime The time of the step.
+     * @param start    The profiler time the step starts at.
+     * @return The profiler time the collisions ended at, the start of what comes next.
+     */
+    private long step(float stepTime, long start) {
+        this.timers.advance(stepTime);
+        super.update(stepTime);
+        long collisionsStart = this.profiler.lap(FrameProfiler.ENGINE, start);
+        this.avatarCollisions.resolve(this.avatar);
+        long end = this.profiler.lap(FrameProfiler.COLLISIONS, collisionsStart);
+        keepAvatarPosition();
+        return end;
+    }
+
+    /**
+     * Keeps the position of the avatar after a simulation step, and the one before it.
+     */
+    private void keepAvatarPosition() {
+        Vector2 topLeft = this.avatar.getTopLeftCorner();
+        this.previousAvatarX = this.avatarX;
+        this.previousAvatarY = this.avatarY;
+        this.avatarX = topLeft.x();
+        this.avatarY = topLeft.y();
+    }
+
+    /**
+     * Puts the avatar between its last two simulated positions for drawing, and moves the camera
+     * after it so the avatar doesn't shake on the screen.
+     *
+     * @param alpha The part of the next step the accumulator already has, between 0 and 1.
+     */
+    private void interpolateAvatar(float alpha) {
+        placeAvatar(this.previousAvatarX + (this.avatarX - this.previousAvatarX) * alpha,
+                this.previousAvatarY + (this.avatarY - this.previousAvatarY) * alpha);
+        camera().update(0);
+    }
+
+    /**
+     * Moves the top-left corner of the avatar, unless it is already there. A standing avatar isn't
+     * moved at all, so it doesn't get a new position vector twice in every frame.
+     *
+     * @param x The x-coordinate of the top-left corner.
+     * @param y The y-coordinate of the top-left corner.
+     */
+    private void placeAvatar(float x, float y) {
+        Vector2 topLeft = this.avatar.getTopLeftCorner();
+        if (topLeft.x() != x || topLeft.y() != y){
+            this.avatar.transform().setTopLeftCorner(x, y);
+        }
+    }
+
+    /**
+     * Returns the seed the game was given, the seed of the saved world, or a new random seed that
+     * is saved.
+     *
+     * @return The seed of the world.
+     */
+    private int createSeed() {
+        if (this.fixedSeed != null){
+            return this.fixedSeed;
+        }
+        if (this.save.hasSeed()){
+            return this.save.getSeed();
+        }
         Random rand = new Random();
         int seed = rand.nextInt();
-        createSun(windowController);
-        Terrain terrain = createGround(windowController, seed);
-        createNight(windowController);
-        createAllTrees(windowController, seed);
-        createAvatar(imageReader, inputListener, windowController, terrain);
+        this.save.saveSeed(seed);
+        return seed;
     }
 
     /**
-     * Creates the sky and adds it to the game world, along with the clouds.
+     * Starts recording the input if the record property is set, with the start of the session as the
+     * header of the log.
      *
-     * @param imageReader      The image reader to read images for clouds.
      * @param windowController The window controller to access window dimensions.
+     * @param seed             The seed of the world.
+     */
+    private void startRecording(WindowController windowController, int seed) {
+        String recordFile = System.getProperty(RECORD_FILE_PROPERTY);
+        if (recordFile == null){
+            return;
+        }
+        Vector2 windowDimensions = windowController.getWindowDimensions();
+        Vector2 topLeft = this.avatar.getTopLeftCorner();
+        this.recorder = InputRecorder.open(Paths.get(recordFile), new RecordedSession(seed,
+                windowDimensions.x(), windowDimensions.y(), this.simulationRate, topLeft.x(), topLeft.y(),
+                this.avatar.getEnergy()));
+    }
+
+    /**
+     * Saves the position and energy of the avatar and the world clock once every AVATAR_SAVE_INTERVAL
+     * seconds.
+     *
+     * @param deltaTime The time elapsed since the last update.
      */
-    private void createSky(ImageReader imageReader, WindowController windowController) {
-        gameObjects().addGameObject(Sky.create(windowController.getWindowDimensions()), Layer.BACKGROUND);
+    private void saveAvatar(float deltaTime) {
+        this.sinceAvatarSave += deltaTime;
+        if (this.sinceAvatarSave >= AVATAR_SAVE_INTERVAL){
+            this.sinceAvatarSave = 0;
+            Vector2 topLeft = this.avatar.getTopLeftCorner();
+            this.save.saveAvatar(topLeft.x(), topLeft.y(), this.avatar.getEnergy());
+            this.save.saveClock(this.timers.now());
+        }
+    }
 
-        new Clouds(imageReader, gameObjects());
+    /**
+     * Returns the world events of the game.
+     *
+     * @return The world events.
+     */
+    public WorldEvents getEvents() {
+        return this.events;
     }
 
     /**
-     * Creates the sun and its halo, adding them to the game world.
+     * Returns the avatar of the game.
      *
-     * @param windowController The window controller to access window dimensions.
+     * @return The avatar.
      */
-    private void createSun(WindowController windowController) {
-        GameObject sun = Sun.create(windowController.getWindowDimensions(), CYCLE_LENGTH);
-        gameObjects().addGameObject(SunHalo.create(sun), Layer.STATIC_OBJECTS);
-        gameObjects().addGameObject(sun,
-                Layer.STATIC_OBJECTS);
+    public Avatar getAvatar() {
+        return this.avatar;
     }
 
     /**
-     * Creates the ground terrain and adds it to the game world.
+     * Returns the frame profiler of the game.
      *
+     * @return The frame profiler.
+     */
+    public FrameProfiler getProfiler() {
+        return this.profiler;
+    }
+
+    /**
+     * Creates the frame profiler, it writes to the file of the profile property if it is set.
+     *
+     * @return The frame profiler.
+     */
+    private static FrameProfiler createProfiler() {
+        String file = System.getProperty(PROFILE_FILE_PROPERTY);
+        return file == null ? new FrameProfiler() : new FrameProfiler(Paths.get(file), PROFILE_INTERVAL);
+    }
+
+    /**
+     * Returns a short line about the state of the world, used by the headless runs.
+     *
+     * @return The number of loaded world objects, the number of leaves in the wind, the pools usage and
+     * the avatar position and energy, which tell if two runs of the same input went the same way.
+     */
+    public String worldStats() {
+        return "objects=" + this.chunkManager.liveObjects() + " leaves=" + this.wind.size() +
+                " pools=" + this.pools.report() + " avatar=" + this.avatar.getTopLeftCorner() +
+                " energy=" + this.avatar.getEnergy();
+    }
+
+    /**
+     * Creates the sky and adds it to the game world, along with the clouds.
+     *
+     * @param assets           The asset registry the cloud images are taken from.
      * @param windowController The window controller to access window dimensions.
-     * @param seed             The seed for generating terrain noise.
-     * @return The created Terrain object representing the ground.
+     * @return The sky.
      */
-    private Terrain createGround(WindowController windowController, int seed) {
-        Terrain terrain = new Terrain(windowController.getWindowDimensions(), seed);
-        List<Block> blocks = terrain.createInRange(0, (int) windowController.getWindowDimensions().x());
-        for (Block block : blocks) {
-            gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
-        }
-        return terrain;
+    private GameObject createSky(AssetRegistry assets, WindowController windowController) {
+        GameObject sky = Sky.create(windowController.getWindowDimensions());
+        gameObjects().addGameObject(sky, Layer.BACKGROUND);
+
+        new Clouds(assets, gameObjects());
+        return sky;
     }
 
     /**
-     * Creates a night object and adds it to the game world.
+     * Creates the sun, its halo and the night, adding them to the game world, and the day cycle that
+     * moves them and colors the sky.
      *
      * @param windowController The window controller to access window dimensions.
+     * @param sky              The sky.
      */
-    private void createNight(WindowController windowController) {
-        GameObject night = Night.create(windowController.getWindowDimensions(), CYCLE_LENGTH);
+    private void createDayCycle(WindowController windowController, GameObject sky) {
+        Vector2 windowDimensions = windowController.getWindowDimensions();
+        GameObject sun = Sun.create(windowDimensions);
+        GameObject halo = SunHalo.create(sun);
+        gameObjects().addGameObject(halo, Layer.STATIC_OBJECTS);
+        gameObjects().addGameObject(sun,
+                Layer.STATIC_OBJECTS);
+        GameObject night = Night.create(windowDimensions);
         gameObjects().addGameObject(night);
+        this.dayCycle = new DayCycle(windowDimensions, CYCLE_LENGTH, sky, sun, halo, night);
     }
 
-
     /**
-     * Creates all trees in the game world using the Flora class and adds them to the game.
+     * Creates the ground terrain, its blocks are created chunk by chunk by the chunk manager.
      *
      * @param windowController The window controller to access window dimensions.
-     * @param seed             The seed value for generating random trees.
-     */
-    private void createAllTrees(WindowController windowController, int seed) {
-        Flora flora = new Flora(windowController.getWindowDimensions(), seed);
-        HashMap<Block, HashMap<TreeLeaves, TreeFruits>> tree = flora.createInRange(0,
-                (int) windowController.getWindowDimensions().x());
-
-        for (Block tr : tree.keySet()) {
-            gameObjects().addGameObject(tr, Layer.DEFAULT);
-            for (TreeLeaves leaves : tree.get(tr).keySet()) {
-                gameObjects().addGameObject(leaves, Layer.STATIC_OBJECTS);
-                if (tree.get(tr).get(leaves) != null) {
-                    gameObjects().addGameObject(tree.get(tr).get(leaves));
-                }
-            }
-        }
+     * @param seed             The seed for generating terrain noise.
+     * @return The created Terrain object representing the ground.
+     */
+    private Terrain createGround(WindowController windowController, int seed) {
+        return new Terrain(windowController.getWindowDimensions(), seed, this.pools);
     }
 
+
     /**
-     * Creates an avatar game object and adds it to the game world.
+     * Creates the Flora class used to create the trees, the trees themselves are created
+     * chunk by chunk by the chunk manager.
      *
-     * @param imageReader      The image reader used to load avatar images.
+     * @param terrain The terrain the trees grow on.
+     * @param seed    The seed value for generating random trees.
+     * @return The created Flora object.
+     */
+    private Flora createAllTrees(Terrain terrain, int seed) {
+        return new Flora(terrain, seed, this.events, this.pools, this.timers);
+    }
+
+    /**
+     * Creates an avatar game object, adds it to the game world and makes the camera follow it.
+     *
+     * @param assets           The asset registry the avatar images are taken from.
      * @param inputListener    The user input listener for controlling the avatar.
      * @param windowController The window controller to access window dimensions.
      * @param terrain          The terrain used to position the avatar at the correct height.
+     * @return The created avatar.
      */
-    private void createAvatar(ImageReader imageReader, UserInputListener inputListener,
+    private Avatar createAvatar(AssetRegistry assets, UserInputListener inputListener,
                               WindowController windowController, Terrain terrain) {
         float i = windowController.getWindowDimensions().x() - POS_X_AVATAR;
         Vector2 avatarPos = new Vector2(i, terrain.groundHeightAt(i) - POS_Y_AVATAR);
-        GameObject avatar = new Avatar(avatarPos, inputListener, imageReader, gameObjects());
+        Avatar avatar = new Avatar(avatarPos, inputListener, assets, this.events,
+                this.profiler);
         avatar.setTag("avatar");
         gameObjects().addGameObject(avatar);
+        setCamera(new Camera(avatar, Vector2.ZERO, windowController.getWindowDimensions(),
+                windowController.getWindowDimensions()));
+        this.avatar = avatar;
+        return avatar;
+    }
+
+    /**
+     * Creates the HUD with the energy display of the avatar.
+     *
+     * @param avatar The avatar whose energy is shown.
+     */
+    private void createHud(Avatar avatar) {
+        Hud hud = new Hud(gameObjects());
+        hud.addWidget(EnergyDisplay.create(this.events, avatar.getEnergy()));
     }
 }
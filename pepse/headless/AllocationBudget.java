@@ -0,0 +1,205 @@
+package pepse.headless;
+
+import danogl.GameManager;
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.world.Terrain;
+import pepse.world.WorldEvents;
+import pepse.world.chunks.ChunkManager;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that the frames of the game stay within a budget of allocated bytes.
+ * Every scenario runs the same generated world without a window, warms it up and then measures the bytes
+ * the game thread allocates in each frame. What the engine allocates on its own for the same scene is
+ * measured in a copy of the scene without the game's code and taken off, and the rest, the bytes the game
+ * allocates, is compared to the budget of the scenario. The process exits with status 1 if any scenario
+ * is over it, or didn't do what it measures, so a build can fail on the regression.
+ * Only the game thread is measured, the chunks generated on worker threads aren't per-frame garbage.
+ * It has to run with -XX:-DoEscapeAnalysis: otherwise the JIT compiler removes some of the short-lived
+ * objects in one run and not in the next, and the same build measures differently every time. With it
+ * off every object the code asks for is counted, so a run of a build always gives the same numbers.
+ * The budgets are the game's numbers on a clean build with a little room above them, small enough that
+ * a string or two vectors made on every frame put the scenario over.
+ * Usage: AllocationBudget [frames]. The budgets are in bytes per frame, they can be changed with the
+ * system property pepse.alloc.budget for all the scenarios and pepse.alloc.budget.[scenario] for one.
+ */
+public class AllocationBudget {
+
+    /**
+     * The scenarios that are measured: standing, running, running and jumping, jumping through the
+     * tree tops to eat the fruits, and walking back and forth with rests, so the energy on the screen
+     * keeps changing.
+     */
+    private static final String[] SCENARIOS = {"idle", "walk", "jump", "eat", "pace"};
+
+    /**
+     * The number of measured frames of every scenario when no number is given.
+     */
+    private static final int DEFAULT_FRAMES = 3000;
+
+    /**
+     * The number of frames run before a scenario is measured.
+     */
+    private static final int WARMUP_FRAMES = 3000;
+
+    /**
+     * The budget of each of the SCENARIOS when none is set, in bytes per frame.
+     */
+    private static final long[] BUDGETS = {264, 344, 352, 352, 314};
+
+    /**
+     * The system property with the budget of all the scenarios.
+     */
+    private static final String BUDGET_PROPERTY = "pepse.alloc.budget";
+
+    /**
+     * The seed of the measured world, it is the same every run so the budgets compare the same frames.
+     */
+    private static final int SEED = 1;
+
+    /**
+     * The layers the game puts its objects in, the engine scene copies them from these.
+     */
+    private static final int[] LAYERS = {Layer.BACKGROUND, Layer.STATIC_OBJECTS, Terrain.UNDERGROUND_LAYER,
+            Layer.DEFAULT, Layer.FOREGROUND, Layer.UI};
+
+    /**
+     * The distance an avatar that should travel has to go in the measured frames, one chunk.
+     */
+    private static final float MIN_TRAVEL = ChunkManager.CHUNK_WIDTH;
+
+    /**
+     * The time every frame simulates, in seconds.
+     */
+    private static final float FRAME_TIME = 1f / 60;
+
+    /**
+     * The dimensions of the window the game thinks it has.
+     */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1920, 1080);
+
+    /**
+     * The thread bean, it knows how many bytes the current thread allocated.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * default constructor.
+     */
+    private AllocationBudget(){}
+
+    /**
+     * The entry point of the allocation check.
+     *
+     * @param args The number of measured frames of every scenario, optional.
+     */
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        String escapeAnalysis = ManagementFactory.getPlatformMXBean(
+                com.sun.management.HotSpotDiagnosticMXBean.class).getVMOption("DoEscapeAnalysis").getValue();
+        if (Boolean.parseBoolean(escapeAnalysis)){
+            System.out.println("run the allocation check with -XX:-DoEscapeAnalysis");
+            System.exit(2);
+        }
+        boolean overBudget = false;
+        for (int i = 0; i < SCENARIOS.length; i++) {
+            long budget = Long.getLong(BUDGET_PROPERTY + "." + SCENARIOS[i],
+                    Long.getLong(BUDGET_PROPERTY, BUDGETS[i]));
+            overBudget |= !measure(SCENARIOS[i], frames, budget);
+        }
+        if (overBudget){
+            System.out.println("allocation budget exceeded");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a scenario, prints the bytes its frames allocated and checks the game's part of them against
+     * the budget. The scenario also fails if it didn't do what it measures: an avatar that should travel
+     * and didn't, or an eat scenario that ate no fruit.
+     *
+     * @param scenario The scenario name.
+     * @param frames   The number of measured frames.
+     * @param budget   The budget of the scenario, in bytes per frame.
+     * @return true if the scenario ran as it should and the game's mean is within the budget.
+     */
+    private static boolean measure(String scenario, int frames, long budget) {
+        HeadlessGame headless = new HeadlessGame(new PepseGameManager(SEED), WINDOW_DIMENSIONS);
+        int[] eaten = new int[1];
+        headless.game().getEvents().newGroup().subscribe(WorldEvents.Type.FRUIT_EATEN,
+                energy -> eaten[0]++);
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            HeadlessRunner.script(headless, scenario, i);
+            headless.step(FRAME_TIME);
+        }
+        long engine = measureEngine(headless.game(), frames);
+        long thread = Thread.currentThread().getId();
+        float startX = headless.game().getAvatar().getTopLeftCorner().x();
+        long total = 0;
+        long max = 0;
+        eaten[0] = 0;
+        for (int i = 0; i < frames; i++) {
+            HeadlessRunner.script(headless, scenario, WARMUP_FRAMES + i);
+            long before = THREADS.getThreadAllocatedBytes(thread);
+            headless.step(FRAME_TIME);
+            long allocated = THREADS.getThreadAllocatedBytes(thread) - before;
+            total += allocated;
+            max = Math.max(max, allocated);
+        }
+        long mean = total / frames;
+        long game = Math.max(0, mean - engine);
+        float travelled = headless.game().getAvatar().getTopLeftCorner().x() - startX;
+        boolean ranAsScripted = (!HeadlessRunner.travels(scenario) || travelled >= MIN_TRAVEL) &&
+                (!scenario.equals("eat") || eaten[0] > 0);
+        boolean withinBudget = game <= budget;
+        String result = !ranAsScripted ? "STUCK" : withinBudget ? "ok" : "OVER";
+        System.out.printf("%-5s %6d B/frame game (%d frame - %d engine) %8d B max %7.0fpx %4d fruits  " +
+                        "budget %d B/frame %s%n", scenario, game, mean, engine, max, travelled, eaten[0],
+                budget, result);
+        return ranAsScripted && withinBudget;
+    }
+
+    /**
+     * Measures the bytes the engine allocates on its own in a frame of the scene of a game.
+     * A new engine scene gets the camera of the game and a plain copy of every object of the game, in the
+     * same layer, with the same place, size, velocity and acceleration but without any of the game's
+     * code, and its frames are measured. Whatever that engine allocates per object and per frame is in
+     * the number, so taking it off the game's frames leaves what the game itself allocates, on any version
+     * of the engine.
+     *
+     * @param game   The game whose scene is copied.
+     * @param frames The number of measured frames.
+     * @return The mean bytes the engine allocated per frame.
+     */
+    private static long measureEngine(PepseGameManager game, int frames) {
+        GameManager scene = new GameManager();
+        WindowController windowController = Stubs.window(WINDOW_DIMENSIONS);
+        scene.initializeGame(Stubs.imageReader(windowController), null, new ScriptedInput().listener(),
+                windowController);
+        scene.setCamera(game.camera());
+        for (int layer : LAYERS) {
+            for (GameObject object : game.gameObjects().objectsInLayer(layer)) {
+                GameObject copy = new GameObject(object.getTopLeftCorner(), object.getDimensions(), null);
+                copy.setVelocity(object.getVelocity());
+                copy.transform().setAcceleration(object.transform().getAcceleration());
+                scene.gameObjects().addGameObject(copy, layer);
+            }
+        }
+        long thread = Thread.currentThread().getId();
+        long total = 0;
+        for (int i = 0; i < WARMUP_FRAMES + frames; i++) {
+            long before = THREADS.getThreadAllocatedBytes(thread);
+            scene.update(FRAME_TIME);
+            if (i >= WARMUP_FRAMES){
+                total += THREADS.getThreadAllocatedBytes(thread) - before;
+            }
+        }
+        return total / frames;
+    }
+}
@@ -0,0 +1,124 @@
+package pepse.headless;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A small benchmark harness, every benchmark is warmed up and then measured in rounds of
+ * a fixed duration. It measures the time of an operation and the bytes it allocates, and writes
+ * the results to a JSON file.
+ */
+public class BenchmarkHarness {
+
+    /**
+     * A measured operation.
+     */
+    public interface Operation {
+        /**
+         * Runs the operation once.
+         *
+         * @param op The number of the run, can be used to vary the input between runs.
+         * @return Any value that depends on the work, so the work isn't optimized away.
+         */
+        long run(int op);
+    }
+
+    /**
+     * The time the benchmark runs before it is measured, in nanoseconds.
+     */
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+
+    /**
+     * The duration of a measured round, in nanoseconds.
+     */
+    private static final long ROUND_NANOS = 500_000_000L;
+
+    /**
+     * The number of measured rounds.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * The thread bean, it knows how many bytes the current thread allocated.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * The results measured so far, one line of JSON each.
+     */
+    private final List<String> results = new ArrayList<>();
+
+    /**
+     * Keeps the values returned by the operations.
+     */
+    private long sink;
+
+    /**
+     * Warms up and measures an operation, and prints its result.
+     *
+     * @param name      The name of the benchmark.
+     * @param param     The parameter of the benchmark, or an empty string.
+     * @param operation The operation to measure.
+     */
+    public void measure(String name, String param, Operation operation) {
+        int op = 0;
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            this.sink += operation.run(op++);
+        }
+        double best = Double.MAX_VALUE;
+        double totalNanos = 0;
+        long totalOps = 0;
+        long totalBytes = 0;
+        long thread = Thread.currentThread().getId();
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytesBefore = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            long ops = 0;
+            long now = start;
+            while (now - start < ROUND_NANOS) {
+                this.sink += operation.run(op++);
+                ops++;
+                now = System.nanoTime();
+            }
+            totalBytes += THREADS.getThreadAllocatedBytes(thread) - bytesBefore;
+            totalNanos += now - start;
+            totalOps += ops;
+            best = Math.min(best, (double) (now - start) / ops);
+        }
+        double nanosPerOp = totalNanos / totalOps;
+        double bytesPerOp = (double) totalBytes / totalOps;
+        double bytesPerSecond = totalBytes / (totalNanos / 1e9);
+        System.out.printf(Locale.ROOT, "%-28s %-8s %14.1f ns/op (best %.1f) %12.1f B/op %8.1f MB/s%n",
+                name, param, nanosPerOp, best, bytesPerOp, bytesPerSecond / 1e6);
+        this.results.add(String.format(Locale.ROOT,
+                "{\"benchmark\":\"%s\",\"param\":\"%s\",\"ops\":%d,\"nsPerOp\":%.1f,\"bestNsPerOp\":%.1f," +
+                        "\"bytesPerOp\":%.1f,\"allocMBPerSec\":%.2f}",
+                name, param, totalOps, nanosPerOp, best, bytesPerOp, bytesPerSecond / 1e6));
+    }
+
+    /**
+     * Writes all the results measured so far to a JSON file, as an array with an object per result.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("[");
+            for (int i = 0; i < this.results.size(); i++) {
+                out.println("  " + this.results.get(i) + (i + 1 < this.results.size() ? "," : ""));
+            }
+            out.println("]");
+        }
+        System.out.println("results written to " + file + " (checksum " + this.sink + ")");
+    }
+}
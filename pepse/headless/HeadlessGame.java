@@ -0,0 +1,90 @@
+package pepse.headless;
+
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+
+/**
+ * Runs a Pepse game without a window.
+ * The game is initialized with stub readers and a scripted input, and its frames are stepped
+ * by code as fast as they can be computed instead of at the target frame rate.
+ */
+public class HeadlessGame {
+
+    /**
+     * The game that is simulated.
+     */
+    private final PepseGameManager game;
+
+    /**
+     * The keys the avatar gets.
+     */
+    private final ScriptedInput input = new ScriptedInput();
+
+    /**
+     * The number of frames stepped so far.
+     */
+    private long frame;
+
+    /**
+     * Creates and initializes a game without a window.
+     *
+     * @param game             The game to simulate.
+     * @param windowDimensions The dimensions of the window the game thinks it has.
+     */
+    public HeadlessGame(PepseGameManager game, Vector2 windowDimensions) {
+        this(game, windowDimensions, null);
+    }
+
+    /**
+     * Creates and initializes a game without a window, that reads its keys from another input.
+     *
+     * @param game             The game to simulate.
+     * @param windowDimensions The dimensions of the window the game thinks it has.
+     * @param inputListener    The input the game reads, or null for the scripted input.
+     */
+    public HeadlessGame(PepseGameManager game, Vector2 windowDimensions, UserInputListener inputListener) {
+        this.game = game;
+        WindowController windowController = Stubs.window(windowDimensions);
+        game.initializeGame(Stubs.imageReader(windowController), null,
+                inputListener != null ? inputListener : this.input.listener(), windowController);
+    }
+
+    /**
+     * Returns the keys the avatar gets, they can be changed between frames.
+     *
+     * @return The scripted input of the game.
+     */
+    public ScriptedInput input() {
+        return this.input;
+    }
+
+    /**
+     * Returns the simulated game.
+     *
+     * @return The game.
+     */
+    public PepseGameManager game() {
+        return this.game;
+    }
+
+    /**
+     * Returns the number of frames stepped so far.
+     *
+     * @return The frame count.
+     */
+    public long frame() {
+        return this.frame;
+    }
+
+    /**
+     * Steps one frame of the game.
+     *
+     * @param deltaTime The time the frame simulates, in seconds.
+     */
+    public void step(float deltaTime) {
+        this.game.update(deltaTime);
+        this.frame++;
+    }
+}
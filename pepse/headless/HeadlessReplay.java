@@ -0,0 +1,65 @@
+package pepse.headless;
+
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.util.FrameProfiler;
+import pepse.util.RecordedSession;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Replays a recorded session without a window and prints how fast its frames were computed.
+ * The session is recorded by running the game with -Dpepse.record=[file]. The replay makes the same
+ * world from the recorded seed, window dimensions and simulation rate, starts the avatar where it
+ * started, and steps it with the recorded frame times and keys, so two builds can be compared on
+ * exactly the same run. The avatar, its energy and the object counts in the world line printed at the
+ * end are the same every time. The pool hits and misses aren't, they depend on when the worker
+ * threads finish the chunks that are streamed in off the screen.
+ * Usage: HeadlessReplay [log file].
+ */
+public class HeadlessReplay {
+
+    /**
+     * The number of frames between two progress lines.
+     */
+    private static final int REPORT_EVERY = 1000;
+
+    /**
+     * default constructor.
+     */
+    private HeadlessReplay(){}
+
+    /**
+     * The entry point of the replay.
+     *
+     * @param args The input log file.
+     * @throws IOException If the log can't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        ReplayInputListener replay = ReplayInputListener.open(Paths.get(args[0]));
+        RecordedSession session = replay.getSession();
+        HeadlessGame headless = new HeadlessGame(new PepseGameManager(session),
+                new Vector2(session.getWindowWidth(), session.getWindowHeight()), replay.listener());
+        double simulated = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < replay.frames(); i++) {
+            float deltaTime = replay.replayFrame(i);
+            headless.step(deltaTime);
+            simulated += deltaTime;
+            if ((i + 1) % REPORT_EVERY == 0){
+                System.out.println("frame " + (i + 1) + ": " + headless.game().worldStats());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("replayed %d frames of seed %d in %.2fs, %.0f frames per second " +
+                "(%.1fx real time)%n", replay.frames(), session.getSeed(), seconds, replay.frames() / seconds,
+                simulated / seconds);
+        System.out.println("end: " + headless.game().worldStats());
+        FrameProfiler profiler = headless.game().getProfiler();
+        System.out.printf("frame p50 %.1fus p99 %.1fus max %.1fus%n",
+                profiler.percentile(FrameProfiler.FRAME, 0.5) / 1e3,
+                profiler.percentile(FrameProfiler.FRAME, 0.99) / 1e3,
+                profiler.max(FrameProfiler.FRAME) / 1e3);
+    }
+}
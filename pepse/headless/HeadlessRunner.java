@@ -0,0 +1,194 @@
+package pepse.headless;
+
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.util.FrameProfiler;
+
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+
+/**
+ * Runs the game without a window for a number of frames and prints how fast the frames were computed.
+ * The avatar walks right and stops to rest after every walk, since walking uses up its energy and it
+ * only gets it back standing without keys. It jumps once in a while, so new chunks keep loading.
+ * The distance it travelled is printed at the end, a run where it got stuck is easy to see.
+ * Usage: HeadlessRunner [frames] [scenario] [overhead], where the scenario is idle, walk, jump (the
+ * default) or eat, which jumps whenever the avatar can so it runs through the tree tops and eats their
+ * fruits, or pace, which walks right, rests, walks back left and rests again, so the energy keeps going
+ * down and up. With overhead it then measures what the frame profiler costs: it runs the scenario on
+ * the same world with the profiler on in every other frame, and prints the time of a frame of both.
+ */
+public class HeadlessRunner {
+
+    /**
+     * The number of frames run when no number is given.
+     */
+    private static final int DEFAULT_FRAMES = 6000;
+
+    /**
+     * The time every frame simulates, in seconds.
+     */
+    private static final float FRAME_TIME = 1f / 60;
+
+    /**
+     * The number of frames between two jumps in the jump scenario.
+     */
+    private static final int JUMP_EVERY = 45;
+
+    /**
+     * The number of frames of every walk in the walk, jump and eat scenarios. It is about two thirds
+     * of the energy, so the avatar still has some left for the jumps.
+     */
+    private static final int WALK_FRAMES = 200;
+
+    /**
+     * The number of frames of every rest in the walk, jump and eat scenarios, long enough to get all
+     * the energy back.
+     */
+    private static final int REST_FRAMES = 200;
+
+    /**
+     * The number of frames of every walk and every rest in the pace scenario.
+     */
+    private static final int PACE_FRAMES = 120;
+
+    /**
+     * The number of frames between two progress lines.
+     */
+    private static final int REPORT_EVERY = 1000;
+
+    /**
+     * The number of runs with the profiler on, and with it off, in the overhead comparison.
+     */
+    private static final int OVERHEAD_ROUNDS = 5;
+
+    /**
+     * The seed of the world of the overhead comparison, both sides run the same world.
+     */
+    private static final int OVERHEAD_SEED = 1;
+
+    /**
+     * The dimensions of the window the game thinks it has.
+     */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1920, 1080);
+
+    /**
+     * default constructor.
+     */
+    private HeadlessRunner(){}
+
+    /**
+     * The entry point of the headless run.
+     *
+     * @param args The number of frames, the scenario and overhead, all optional.
+     */
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        String scenario = args.length > 1 ? args[1] : "jump";
+        HeadlessGame headless = new HeadlessGame(new PepseGameManager(), WINDOW_DIMENSIONS);
+        float startX = headless.game().getAvatar().getTopLeftCorner().x();
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            script(headless, scenario, i);
+            headless.step(FRAME_TIME);
+            if ((i + 1) % REPORT_EVERY == 0){
+                System.out.println("frame " + (i + 1) + ": " + headless.game().worldStats());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d frames in %.2fs, %.0f frames per second (%.1fx real time)%n",
+                frames, seconds, frames / seconds, frames * FRAME_TIME / seconds);
+        FrameProfiler profiler = headless.game().getProfiler();
+        System.out.printf("frame p50 %.1fus p99 %.1fus max %.1fus%n",
+                profiler.percentile(FrameProfiler.FRAME, 0.5) / 1e3,
+                profiler.percentile(FrameProfiler.FRAME, 0.99) / 1e3,
+                profiler.max(FrameProfiler.FRAME) / 1e3);
+        System.out.printf("the avatar travelled %.0fpx%n",
+                headless.game().getAvatar().getTopLeftCorner().x() - startX);
+        if (args.length > 2 && args[2].equals("overhead")){
+            compareProfiler(frames, scenario);
+        }
+    }
+
+    /**
+     * Measures what the profiler costs. The scenario runs with the profiler on in every other frame
+     * and off in the rest, so both sides run the same world on the same warm machine and a change of
+     * the machine speed hits both. The profiler costs about the same in every frame, so the medians of
+     * the frame times are compared, the frames that load chunks or collect garbage would only add noise
+     * to a total. Every round is a new game, and the side of the even frames swaps between rounds.
+     *
+     * @param frames   The number of frames of every round.
+     * @param scenario The scenario name.
+     */
+    private static void compareProfiler(int frames, String scenario) {
+        long[] on = new long[OVERHEAD_ROUNDS * (frames / 2)];
+        long[] off = new long[on.length];
+        int measured = 0;
+        for (int r = 0; r < OVERHEAD_ROUNDS; r++) {
+            HeadlessGame headless = new HeadlessGame(new PepseGameManager(OVERHEAD_SEED), WINDOW_DIMENSIONS);
+            FrameProfiler profiler = headless.game().getProfiler();
+            for (int i = 0; i < frames / 2 * 2; i++) {
+                boolean profiled = (i + r) % 2 == 0;
+                profiler.setEnabled(profiled);
+                script(headless, scenario, i);
+                long start = System.nanoTime();
+                headless.step(FRAME_TIME);
+                long time = System.nanoTime() - start;
+                if (profiled){
+                    on[measured + i / 2] = time;
+                } else {
+                    off[measured + i / 2] = time;
+                }
+            }
+            measured += frames / 2;
+        }
+        Arrays.sort(on);
+        Arrays.sort(off);
+        double onMicros = on[on.length / 2] / 1e3;
+        double offMicros = off[off.length / 2] / 1e3;
+        System.out.printf("profiler on %.2fus per frame, off %.2fus per frame, overhead %.2f%%%n",
+                onMicros, offMicros, (onMicros - offMicros) / offMicros * 100);
+    }
+
+    /**
+     * Checks if the avatar of a scenario travels through the world, or stays around where it starts.
+     *
+     * @param scenario The scenario name.
+     * @return true for walk, jump and eat.
+     */
+    static boolean travels(String scenario) {
+        return !scenario.equals("idle") && !scenario.equals("pace");
+    }
+
+    /**
+     * Sets the keys of a frame according to the scenario.
+     *
+     * @param headless The game, its scripted input is set.
+     * @param scenario The scenario name, idle, walk, jump, eat or pace.
+     * @param frame    The frame number.
+     */
+    static void script(HeadlessGame headless, String scenario, int frame) {
+        ScriptedInput input = headless.input();
+        input.releaseAll();
+        if (scenario.equals("idle")){
+            return;
+        }
+        if (scenario.equals("pace")){
+            int part = frame / PACE_FRAMES % 4;
+            if (part % 2 == 0){
+                input.press(part == 0 ? KeyEvent.VK_RIGHT : KeyEvent.VK_LEFT);
+            }
+            return;
+        }
+        int walkFrame = frame % (WALK_FRAMES + REST_FRAMES);
+        if (walkFrame >= WALK_FRAMES){
+            return;
+        }
+        input.press(KeyEvent.VK_RIGHT);
+        // a walk that was stopped by a tree or a step hops over it, otherwise it would stay there.
+        boolean stopped = walkFrame > 0 && headless.game().getAvatar().getVelocity().x() == 0;
+        if (scenario.equals("eat") || scenario.equals("jump") && walkFrame % JUMP_EVERY == 0 || stopped){
+            input.press(KeyEvent.VK_SPACE);
+        }
+    }
+}
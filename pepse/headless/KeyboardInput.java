@@ -0,0 +1,100 @@
+package pepse.headless;
+
+import danogl.gui.UserInputListener;
+import danogl.util.Vector2;
+import pepse.util.InputRecorder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Input without a window that only has the keys the avatar reads. Subclasses say which of them are
+ * pressed, and every other question gets the answer of an untouched mouse and keyboard.
+ * It is a plain class and not a proxy, so a key check doesn't allocate and the frames of the
+ * allocation budget only measure the game.
+ */
+abstract class KeyboardInput implements UserInputListener {
+
+    /**
+     * Checks if a key is pressed.
+     *
+     * @param keyCode The key code, one of the KeyEvent.VK_ constants.
+     * @return true if the key is pressed.
+     */
+    public abstract boolean isKeyPressed(int keyCode);
+
+    /**
+     * Checks if a key was pressed in this frame, never since the keys have no frames of their own.
+     *
+     * @param keyCode The key code.
+     * @return false.
+     */
+    public boolean wasKeyPressedThisFrame(int keyCode){
+        return false;
+    }
+
+    /**
+     * Checks if a key was released in this frame, never since the keys have no frames of their own.
+     *
+     * @param keyCode The key code.
+     * @return false.
+     */
+    public boolean wasKeyReleasedThisFrame(int keyCode){
+        return false;
+    }
+
+    /**
+     * Returns the recorded keys that are pressed, a new set every time, nothing in the game asks
+     * for it.
+     *
+     * @return The key codes of the pressed keys.
+     */
+    public Set<Integer> pressedKeys(){
+        Set<Integer> pressed = new HashSet<>();
+        for (int key : InputRecorder.KEYS) {
+            if (isKeyPressed(key)){
+                pressed.add(key);
+            }
+        }
+        return pressed;
+    }
+
+    /**
+     * Checks if a mouse button is pressed, the mouse is never used.
+     *
+     * @param button The button.
+     * @return false.
+     */
+    public boolean isMouseButtonPressed(int button){
+        return false;
+    }
+
+    /**
+     * Checks if a mouse button was pressed in this frame, the mouse is never used.
+     *
+     * @param button The button.
+     * @return false.
+     */
+    public boolean wasMouseButtonPressedThisFrame(int button){
+        return false;
+    }
+
+    /**
+     * Checks if a mouse button was released in this frame, the mouse is never used.
+     *
+     * @param button The button.
+     * @return false.
+     */
+    public boolean wasMouseButtonReleasedThisFrame(int button){
+        return false;
+    }
+
+    /**
+     * Returns the position of the mouse on the screen, the mouse never moves.
+     *
+     * @return The top-left corner of the screen.
+     */
+    public Vector2 getMouseScreenPos(){
+        return Vector2.ZERO;
+    }
+}
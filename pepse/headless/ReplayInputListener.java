@@ -0,0 +1,135 @@
+package pepse.headless;
+
+import danogl.gui.UserInputListener;
+import pepse.util.InputRecorder;
+import pepse.util.RecordedSession;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays an input log written by the InputRecorder.
+ * The keys of the current frame are answered to the game, and the time of every frame and the start
+ * of the session are taken from the log, so the recorded session runs again exactly.
+ */
+public class ReplayInputListener extends KeyboardInput {
+
+    /**
+     * The start of the recorded session.
+     */
+    private final RecordedSession session;
+
+    /**
+     * The time of every recorded frame.
+     */
+    private final float[] deltaTimes;
+
+    /**
+     * The bits of the keys pressed in every recorded frame.
+     */
+    private final byte[] keys;
+
+    /**
+     * The frame that is replayed.
+     */
+    private int frame;
+
+    /**
+     * Constructs a new replay.
+     *
+     * @param session    The start of the recorded session.
+     * @param deltaTimes The time of every recorded frame.
+     * @param keys       The bits of the keys pressed in every recorded frame.
+     */
+    private ReplayInputListener(RecordedSession session, float[] deltaTimes, byte[] keys){
+        this.session = session;
+        this.deltaTimes = deltaTimes;
+        this.keys = keys;
+    }
+
+    /**
+     * Reads an input log. A log that was cut in the middle of a frame is replayed up to that frame.
+     *
+     * @param file The log file.
+     * @return The replay.
+     * @throws IOException If the file can't be read or isn't an input log of this version.
+     */
+    public static ReplayInputListener open(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != InputRecorder.MAGIC || in.readInt() != InputRecorder.VERSION){
+                throw new IOException(file + " is not an input log of this version");
+            }
+            RecordedSession session = RecordedSession.read(in);
+            int frames = (int) ((Files.size(file) - InputRecorder.HEADER_BYTES) / (Float.BYTES + 1));
+            float[] deltaTimes = new float[frames];
+            byte[] keys = new byte[frames];
+            try {
+                for (int i = 0; i < frames; i++) {
+                    deltaTimes[i] = in.readFloat();
+                    keys[i] = in.readByte();
+                }
+            } catch (EOFException e) {
+                throw new IOException(file + " ended before its frames", e);
+            }
+            return new ReplayInputListener(session, deltaTimes, keys);
+        }
+    }
+
+    /**
+     * Returns the input listener that is given to the game.
+     *
+     * @return The input listener.
+     */
+    public UserInputListener listener(){
+        return this;
+    }
+
+    /**
+     * Returns the start of the recorded session.
+     *
+     * @return The session start.
+     */
+    public RecordedSession getSession(){
+        return this.session;
+    }
+
+    /**
+     * Returns the number of recorded frames.
+     *
+     * @return The frame count.
+     */
+    public int frames(){
+        return this.deltaTimes.length;
+    }
+
+    /**
+     * Moves the replay to a frame, the game gets its keys until the next one.
+     *
+     * @param frame The frame number.
+     * @return The time of the frame.
+     */
+    public float replayFrame(int frame){
+        this.frame = frame;
+        return this.deltaTimes[frame];
+    }
+
+    /**
+     * Checks if a key was pressed in the replayed frame. Keys that aren't recorded are never pressed.
+     *
+     * @param keyCode The key code, one of the KeyEvent.VK_ constants.
+     * @return true if the key was pressed.
+     */
+    @Override
+    public boolean isKeyPressed(int keyCode){
+        for (int i = 0; i < InputRecorder.KEYS.length; i++) {
+            if (InputRecorder.KEYS[i] == keyCode){
+                return (this.keys[this.frame] & (1 << i)) != 0;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+package pepse.headless;
+
+import danogl.gui.UserInputListener;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keyboard input that is set by code instead of read from a window.
+ * The keys that are pressed are changed with press and release, and the listener answers
+ * isKeyPressed from them. Any other question of the listener gets a default answer.
+ */
+public class ScriptedInput extends KeyboardInput {
+
+    /**
+     * The keys that are currently pressed.
+     */
+    private final Set<Integer> pressedKeys = new HashSet<>();
+
+    /**
+     * Returns the input listener that is given to the game.
+     *
+     * @return The input listener.
+     */
+    public UserInputListener listener(){
+        return this;
+    }
+
+    /**
+     * Checks if a key is pressed.
+     *
+     * @param keyCode The key code, one of the KeyEvent.VK_ constants.
+     * @return true if the key is pressed.
+     */
+    @Override
+    public boolean isKeyPressed(int keyCode){
+        return this.pressedKeys.contains(keyCode);
+    }
+
+    /**
+     * Presses a key, it stays pressed until it is released.
+     *
+     * @param keyCode The key code, one of the KeyEvent.VK_ constants.
+     */
+    public void press(int keyCode){
+        this.pressedKeys.add(keyCode);
+    }
+
+    /**
+     * Releases a key.
+     *
+     * @param keyCode The key code, one of the KeyEvent.VK_ constants.
+     */
+    public void release(int keyCode){
+        this.pressedKeys.remove(keyCode);
+    }
+
+    /**
+     * Releases all the keys.
+     */
+    public void releaseAll(){
+        this.pressedKeys.clear();
+    }
+}
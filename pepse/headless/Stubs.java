@@ -0,0 +1,100 @@
+package pepse.headless;
+
+import danogl.gui.ImageReader;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Stand-ins for the parts of the engine that need a real window.
+ */
+public class Stubs {
+
+    /**
+     * The image every stub image reader returns, a single transparent pixel.
+     */
+    private static final ImageRenderable BLANK_IMAGE =
+            new ImageRenderable(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+
+    /**
+     * default constructor.
+     */
+    private Stubs(){}
+
+    /**
+     * Creates a window controller for a window that is never opened.
+     * It reports the given window dimensions and gives a default answer to anything else.
+     *
+     * @param windowDimensions The dimensions of the window.
+     * @return The window controller.
+     */
+    public static WindowController window(Vector2 windowDimensions){
+        return (WindowController) Proxy.newProxyInstance(WindowController.class.getClassLoader(),
+                new Class<?>[]{WindowController.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getWindowDimensions")){
+                        return windowDimensions;
+                    }
+                    return defaultAnswer(proxy, method, args);
+                });
+    }
+
+    /**
+     * Creates an image reader that doesn't read any file, every image is a single blank pixel.
+     *
+     * @param windowController The window controller of the game.
+     * @return The image reader.
+     */
+    public static ImageReader imageReader(WindowController windowController){
+        return new ImageReader(windowController) {
+            @Override
+            public ImageRenderable readImage(String imageFilePath, boolean topLeftPixelIsTransparent) {
+                return BLANK_IMAGE;
+            }
+        };
+    }
+
+    /**
+     * Returns the default answer of a stub to a method call: false, zero, or null for objects.
+     *
+     * @param proxy  The stub the method was called on.
+     * @param method The called method.
+     * @param args   The arguments of the call.
+     * @return The default answer.
+     */
+    private static Object defaultAnswer(Object proxy, Method method, Object[] args){
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "stub " + method.getDeclaringClass().getSimpleName();
+            default:
+                break;
+        }
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class){
+            return false;
+        }
+        if (type == int.class || type == short.class || type == byte.class){
+            return 0;
+        }
+        if (type == long.class){
+            return 0L;
+        }
+        if (type == float.class){
+            return 0f;
+        }
+        if (type == double.class){
+            return 0d;
+        }
+        if (type == char.class){
+            return '\0';
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+package pepse.headless;
+
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.util.BatchNoise;
+import pepse.util.TimerWheel;
+import pepse.world.Block;
+import pepse.world.EntityPools;
+import pepse.world.Terrain;
+import pepse.world.WorldEvents;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Forest;
+import pepse.world.trees.TreeFruits;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * The benchmarks of the world generation and of a game frame.
+ * Every generation benchmark moves to a new part of the world on each run, so it measures
+ * generating new ground and not reading the height cache, and the created objects are
+ * released back to the pools like the chunk manager does.
+ * Usage: WorldBenchmarks [results file], the default file is bench-results.json.
+ */
+public class WorldBenchmarks {
+
+    /**
+     * The widths of the generated ranges, in pixels.
+     */
+    private static final int[] RANGE_WIDTHS = {1_000, 10_000, 100_000};
+
+    /**
+     * The number of columns of a noise batch, one height map chunk.
+     */
+    private static final int NOISE_COLUMNS = 64;
+
+    /**
+     * The seed of the benchmarked world, fixed so runs can be compared.
+     */
+    private static final int SEED = 1234;
+
+    /**
+     * The dimensions of the window the world is generated for.
+     */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1920, 1080);
+
+    /**
+     * The time a benchmarked frame simulates, in seconds.
+     */
+    private static final float FRAME_TIME = 1f / 60;
+
+    /**
+     * default constructor.
+     */
+    private WorldBenchmarks(){}
+
+    /**
+     * Runs all the benchmarks and writes their results.
+     *
+     * @param args The results file, optional.
+     * @throws IOException If the results file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path resultsFile = Paths.get(args.length > 0 ? args[0] : "bench-results.json");
+        BenchmarkHarness harness = new BenchmarkHarness();
+        EntityPools pools = new EntityPools();
+        Terrain terrain = new Terrain(WINDOW_DIMENSIONS, SEED, pools);
+        Flora flora = new Flora(terrain, SEED, new WorldEvents(), pools, new TimerWheel());
+
+        harness.measure("Terrain.groundHeightAt", "cached", op -> (long) terrain.groundHeightAt(
+                (op & 1023) * Block.SIZE));
+        harness.measure("Terrain.groundHeightAt", "noise", op -> (long) terrain.groundHeightAt(op * 7.5f));
+        BatchNoise noise = new BatchNoise(SEED, WINDOW_DIMENSIONS.y() / 3, Block.SIZE * 7);
+        float[] heights = new float[NOISE_COLUMNS];
+        harness.measure("BatchNoise.noise", NOISE_COLUMNS + "cols", op -> {
+            float firstX = (float) op * NOISE_COLUMNS * Block.SIZE;
+            for (int i = 0; i < NOISE_COLUMNS; i++) {
+                heights[i] = noise.noise(firstX + (float) i * Block.SIZE);
+            }
+            return (long) heights[op & (NOISE_COLUMNS - 1)];
+        });
+        harness.measure("BatchNoise.fill", NOISE_COLUMNS + "cols", op -> {
+            noise.fill((float) op * NOISE_COLUMNS * Block.SIZE, Block.SIZE, heights, NOISE_COLUMNS);
+            return (long) heights[op & (NOISE_COLUMNS - 1)];
+        });
+        for (int width : RANGE_WIDTHS) {
+            String param = width + "px";
+            harness.measure("Terrain.createInRange", param, op -> {
+                List<Block> blocks = terrain.createInRange(op * width, (op + 1) * width);
+                blocks.forEach(pools::release);
+                return blocks.size();
+            });
+            harness.measure("Flora.planInRange", param, op ->
+                    flora.planInRange(op * width, (op + 1) * width).leafCount());
+            harness.measure("Flora.createTreesInRange", param, op ->
+                    createTrees(flora, pools, op * width, (op + 1) * width));
+        }
+        // the frames follow the walk script of the headless runner, the avatar walks and rests so it
+        // keeps its energy and goes on loading new chunks through the warmup and the measured runs.
+        HeadlessGame headless = new HeadlessGame(new PepseGameManager(SEED), WINDOW_DIMENSIONS);
+        float startX = headless.game().getAvatar().getTopLeftCorner().x();
+        harness.measure("PepseGameManager.update", "walk", op -> {
+            HeadlessRunner.script(headless, "walk", op);
+            headless.step(FRAME_TIME);
+            return op;
+        });
+        System.out.printf("the walking avatar travelled %.0fpx%n",
+                headless.game().getAvatar().getTopLeftCorner().x() - startX);
+        harness.write(resultsFile);
+    }
+
+    /**
+     * Plans the trees of a range and creates their trunks, leaves and fruits like a loaded chunk,
+     * then releases them back to the pools.
+     *
+     * @param flora The flora that plans the trees.
+     * @param pools The pools the objects are released to.
+     * @param minX  The start of the range.
+     * @param maxX  The end of the range.
+     * @return The number of created objects.
+     */
+    private static long createTrees(Flora flora, EntityPools pools, int minX, int maxX) {
+        Forest forest = flora.planInRange(minX, maxX);
+        long created = 0;
+        for (int t = 0; t < forest.treeCount(); t++) {
+            pools.release(flora.createTrunk(forest, t));
+            created++;
+            for (int l = forest.leavesStart(t); l < forest.leavesEnd(t); l++) {
+                pools.release(flora.createLeaf(forest, t, l));
+                TreeFruits fruit = flora.createFruit(forest, l);
+                if (fruit != null){
+                    pools.release(fruit);
+                    created++;
+                }
+                created++;
+            }
+        }
+        return created;
+    }
+}
@@ -0,0 +1,169 @@
+package pepse.util;
+
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.AnimationRenderable;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The images of the game, decoded once and shared.
+ * The images of a manifest are decoded in parallel on a worker pool when the game starts, and every
+ * image or animation is handed out as one shared renderable no matter how many objects ask for it.
+ * An image that isn't a plain file (or can't be decoded as one) is read by the engine image reader
+ * instead, on the game thread. The time each image took is kept for the startup trace.
+ */
+public class AssetRegistry {
+
+    /**
+     * The engine image reader, for the images that can't be decoded from a file.
+     */
+    private final ImageReader imageReader;
+
+    /**
+     * The images that are being decoded or were decoded, by their path.
+     */
+    private final Map<String, CompletableFuture<BufferedImage>> decoding = new HashMap<>();
+
+    /**
+     * The shared image renderables, by their path.
+     */
+    private final Map<String, Renderable> images = new HashMap<>();
+
+    /**
+     * The shared animations, by their frame paths and frame time.
+     */
+    private final Map<String, AnimationRenderable> animations = new HashMap<>();
+
+    /**
+     * The time it took to get every image, in nanoseconds, in the order they were asked for.
+     */
+    private final Map<String, Long> loadNanos = new LinkedHashMap<>();
+
+    /**
+     * The time the preloading started at.
+     */
+    private long preloadStart;
+
+    /**
+     * Constructs a new registry.
+     *
+     * @param imageReader The engine image reader.
+     */
+    public AssetRegistry(ImageReader imageReader){
+        this.imageReader = imageReader;
+    }
+
+    /**
+     * Starts decoding the images of a manifest on the worker pool, paths that were already asked for are
+     * skipped. It returns at once, asking for an image waits for its decoding.
+     *
+     * @param manifest The paths of the images.
+     */
+    public void preload(String... manifest){
+        this.preloadStart = System.nanoTime();
+        for (String path : manifest) {
+            this.decoding.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> decode(p),
+                    ForkJoinPool.commonPool()));
+        }
+    }
+
+    /**
+     * Returns the shared renderable of an image.
+     *
+     * @param path The path of the image.
+     * @return The renderable.
+     */
+    public Renderable image(String path){
+        Renderable image = this.images.get(path);
+        if (image != null){
+            return image;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<BufferedImage> decoded = this.decoding.get(path);
+        BufferedImage buffered = decoded == null ? decode(path) : decoded.join();
+        if (buffered != null){
+            image = new ImageRenderable(buffered);
+        } else {
+            image = this.imageReader.readImage(path, false);
+            synchronized (this.loadNanos) {
+                this.loadNanos.put(path, System.nanoTime() - start);
+            }
+        }
+        this.images.put(path, image);
+        return image;
+    }
+
+    /**
+     * Returns the shared animation of a sequence of images.
+     *
+     * @param framePaths The paths of the frames.
+     * @param frameTime  The time every frame is shown, in seconds.
+     * @return The animation.
+     */
+    public AnimationRenderable animation(String[] framePaths, double frameTime){
+        String key = String.join("|", framePaths) + "@" + frameTime;
+        AnimationRenderable animation = this.animations.get(key);
+        if (animation == null){
+            Renderable[] frames = new Renderable[framePaths.length];
+            for (int i = 0; i < framePaths.length; i++) {
+                frames[i] = image(framePaths[i]);
+            }
+            animation = new AnimationRenderable(frames, frameTime);
+            this.animations.put(key, animation);
+        }
+        return animation;
+    }
+
+    /**
+     * Returns the startup trace: the time every image took to load, and the time since preloading started.
+     *
+     * @return The trace, a line per image.
+     */
+    public String trace(){
+        StringBuilder trace = new StringBuilder();
+        synchronized (this.loadNanos) {
+            for (Map.Entry<String, Long> entry : this.loadNanos.entrySet()) {
+                trace.append(String.format("asset %-24s %8.2f ms%n", entry.getKey(), entry.getValue() / 1e6));
+            }
+        }
+        trace.append(String.format("assets ready %.2f ms after preloading started, %d images, %d animations",
+                (System.nanoTime() - this.preloadStart) / 1e6, this.images.size(), this.animations.size()));
+        return trace.toString();
+    }
+
+    /**
+     * Decodes an image file, it can run on any thread.
+     *
+     * @param path The path of the image.
+     * @return The decoded image, or null if it isn't a file that can be decoded.
+     */
+    private BufferedImage decode(String path){
+        long start = System.nanoTime();
+        BufferedImage image = null;
+        File file = new File(path);
+        if (file.isFile()){
+            try {
+                image = ImageIO.read(file);
+            } catch (IOException e) {
+                // the engine image reader gets to try it.
+                image = null;
+            }
+        }
+        if (image != null){
+            synchronized (this.loadNanos) {
+                this.loadNanos.put(path, System.nanoTime() - start);
+            }
+        }
+        return image;
+    }
+}
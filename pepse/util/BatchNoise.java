@@ -0,0 +1,152 @@
+package pepse.util;
+
+import java.util.Random;
+
+/**
+ * One dimensional fractal gradient noise, evaluated in float and in batches.
+ * The noise is a sum of octaves, from a base wavelength down to a single pixel, each octave half the
+ * wavelength and half the amplitude of the one before. Every lattice point gets a gradient from a
+ * permutation table shuffled by the seed, and the noise between two lattice points blends their
+ * gradients with a smooth fade curve.
+ * Filling a run of samples is one loop over the samples with the octaves unrolled inside it: float
+ * arithmetic over the tables with no calls and no floor, and the sum of a sample stays in a register.
+ */
+public class BatchNoise {
+
+    /**
+     * The size of the permutation and gradient tables, a power of two.
+     */
+    private static final int TABLE_SIZE = 256;
+
+    /**
+     * The mask of an index into the tables.
+     */
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    /**
+     * The permutation of the lattice points, twice so a lookup plus an offset doesn't wrap.
+     */
+    private final int[] permutation = new int[TABLE_SIZE * 2];
+
+    /**
+     * The gradient of every permutation entry, between -1 and 1.
+     */
+    private final float[] gradients = new float[TABLE_SIZE];
+
+    /**
+     * One over the wavelength of every octave.
+     */
+    private final float[] frequencies;
+
+    /**
+     * The amplitude of every octave, they add up to the amplitude of the noise.
+     */
+    private final float[] amplitudes;
+
+    /**
+     * Constructs a new noise.
+     *
+     * @param seed           The seed of the permutation and gradients.
+     * @param baseWavelength The wavelength of the first octave, in pixels.
+     * @param amplitude      The amplitude of the noise.
+     */
+    public BatchNoise(long seed, float baseWavelength, float amplitude){
+        Random random = new Random(seed);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            this.permutation[i] = i;
+            this.gradients[i] = random.nextFloat() * 2 - 1;
+        }
+        for (int i = TABLE_SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = this.permutation[i];
+            this.permutation[i] = this.permutation[j];
+            this.permutation[j] = swap;
+        }
+        System.arraycopy(this.permutation, 0, this.permutation, TABLE_SIZE, TABLE_SIZE);
+        int octaves = 1;
+        for (float wavelength = baseWavelength / 2; wavelength >= 1; wavelength /= 2) {
+            octaves++;
+        }
+        this.frequencies = new float[octaves];
+        this.amplitudes = new float[octaves];
+        float total = 0;
+        for (int o = 0; o < octaves; o++) {
+            float wavelength = baseWavelength / (1 << o);
+            this.frequencies[o] = 1 / wavelength;
+            this.amplitudes[o] = wavelength / baseWavelength;
+            total += this.amplitudes[o];
+        }
+        // two times the amplitude, a single octave of gradient noise stays within a half.
+        for (int o = 0; o < octaves; o++) {
+            this.amplitudes[o] *= 2 * amplitude / total;
+        }
+    }
+
+    /**
+     * Returns the noise at a single point.
+     *
+     * @param x The point.
+     * @return The noise value, roughly between -amplitude and amplitude.
+     */
+    public float noise(float x){
+        float value = 0;
+        for (int o = 0; o < this.frequencies.length; o++) {
+            value += octave(x * this.frequencies[o], o) * this.amplitudes[o];
+        }
+        return value;
+    }
+
+    /**
+     * Fills an array with the noise at evenly spaced points, out[i] is the noise at x0 + i * step.
+     *
+     * @param x0    The first point.
+     * @param step  The distance between two points.
+     * @param out   The array to fill.
+     * @param count The number of points.
+     */
+    public void fill(float x0, float step, float[] out, int count){
+        int[] perm = this.permutation;
+        float[] grads = this.gradients;
+        float[] freqs = this.frequencies;
+        float[] amps = this.amplitudes;
+        int octaves = freqs.length;
+        for (int i = 0; i < count; i++) {
+            float px = x0 + i * step;
+            float value = 0;
+            for (int o = 0; o < octaves; o++) {
+                float x = px * freqs[o];
+                int cell = (int) x;
+                if (x < cell){
+                    cell--;
+                }
+                float t = x - cell;
+                float g0 = grads[perm[(cell & TABLE_MASK) + o]];
+                float g1 = grads[perm[((cell + 1) & TABLE_MASK) + o]];
+                float fade = t * t * t * (t * (t * 6 - 15) + 10);
+                float n0 = g0 * t;
+                value += (n0 + fade * (g1 * (t - 1) - n0)) * amps[o];
+            }
+            out[i] = value;
+        }
+    }
+
+    /**
+     * Returns the noise of a single octave.
+     *
+     * @param x The point, in the wavelengths of the octave.
+     * @param o The octave.
+     * @return The noise of the octave, between -0.5 and 0.5.
+     */
+    private float octave(float x, int o){
+        int cell = (int) x;
+        if (x < cell){
+            cell--;
+        }
+        float t = x - cell;
+        float g0 = this.gradients[this.permutation[(cell & TABLE_MASK) + o]];
+        float g1 = this.gradients[this.permutation[((cell + 1) & TABLE_MASK) + o]];
+        float fade = t * t * t * (t * (t * 6 - 15) + 10);
+        float n0 = g0 * t;
+        return n0 + fade * (g1 * (t - 1) - n0);
+    }
+}
@@ -0,0 +1,341 @@
+package pepse.util;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import pepse.world.Terrain;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures how long the parts of a frame take.
+ * Every section of the frame keeps a histogram of its durations in fixed log buckets, so recording
+ * a duration is two array writes and never allocates. Once in a while the p50, p99 and max of every
+ * section and the number of objects in every layer are appended to a CSV file, and the histograms
+ * start over. Sections can nest, the engine section includes the avatar which includes the events
+ * it publishes.
+ */
+public class FrameProfiler {
+
+    /**
+     * The section of a whole frame.
+     */
+    public static final int FRAME = 0;
+
+    /**
+     * The section of the engine update: updating the game objects (the avatar
+     * and the sun and night transitions).
+     */
+    public static final int ENGINE = 1;
+
+    /**
+     * The section of the avatar update, including the events it publishes.
+     */
+    public static final int AVATAR = 2;
+
+    /**
+     * The section of the jump event, the trunks recolouring and the leaves and fruits reacting.
+     */
+    public static final int JUMP_EVENT = 3;
+
+    /**
+     * The section of the fruit and energy events.
+     */
+    public static final int FRUIT_EVENT = 4;
+
+    /**
+     * The section of the chunks loading and unloading.
+     */
+    public static final int CHUNKS = 5;
+
+    /**
+     * The section of the leaves moving in the wind.
+     */
+    public static final int WIND = 6;
+
+    /**
+     * The section of the avatar collisions with the world.
+     */
+    public static final int COLLISIONS = 7;
+
+    /**
+     * The names of the sections, by their number.
+     */
+    private static final String[] SECTION_NAMES =
+            {"frame", "engine", "avatar", "jump_event", "fruit_event", "chunks", "wind", "collisions"};
+
+    /**
+     * The layers whose objects are counted.
+     */
+    private static final int[] LAYERS = {Layer.BACKGROUND, Layer.STATIC_OBJECTS, Terrain.UNDERGROUND_LAYER,
+            Layer.DEFAULT, Layer.UI};
+
+    /**
+     * The names of the counted layers.
+     */
+    private static final String[] LAYER_NAMES = {"background", "static", "underground", "default", "ui"};
+
+    /**
+     * The number of buckets between two powers of two, as a power of two.
+     * With 8 buckets a percentile is off by at most an eighth.
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * The number of buckets of a histogram.
+     */
+    private static final int BUCKETS = 64 << SUB_BITS;
+
+    /**
+     * The histograms of the sections.
+     */
+    private final long[][] histograms = new long[SECTION_NAMES.length][BUCKETS];
+
+    /**
+     * The number of durations recorded for every section.
+     */
+    private final long[] counts = new long[SECTION_NAMES.length];
+
+    /**
+     * The longest duration recorded for every section, in nanoseconds.
+     */
+    private final long[] maxNanos = new long[SECTION_NAMES.length];
+
+    /**
+     * The file the dumps are appended to, or null if they aren't written.
+     */
+    private final Path dumpFile;
+
+    /**
+     * The time between two dumps, in seconds of game time.
+     */
+    private final float dumpInterval;
+
+    /**
+     * The game time since the last dump, in seconds.
+     */
+    private float sinceDump;
+
+    /**
+     * The game time since the profiler was created, in seconds.
+     */
+    private float gameTime;
+
+    /**
+     * Whether the profiler measures anything.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Constructs a profiler that dumps to a file.
+     *
+     * @param dumpFile     The CSV file the dumps are appended to, or null to keep the histograms in memory.
+     * @param dumpInterval The time between two dumps, in seconds of game time.
+     */
+    public FrameProfiler(Path dumpFile, float dumpInterval){
+        this.dumpFile = dumpFile;
+        this.dumpInterval = dumpInterval;
+    }
+
+    /**
+     * Constructs a profiler that keeps its histograms in memory.
+     */
+    public FrameProfiler(){
+        this(null, 0);
+    }
+
+    /**
+     * Turns the profiler on or off, when it is off start and stop do nothing.
+     *
+     * @param enabled Whether the profiler measures anything.
+     */
+    public void setEnabled(boolean enabled){
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts measuring a section.
+     *
+     * @return The start time, to give to stop.
+     */
+    public long start(){
+        return this.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stops measuring a section and records its duration.
+     *
+     * @param section The section, one of the section constants.
+     * @param start   The time start returned.
+     */
+    public void stop(int section, long start){
+        if (this.enabled){
+            record(section, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stops measuring a section and starts measuring the one that comes right after it, with a single
+     * clock read for both.
+     *
+     * @param section The section that ends, one of the section constants.
+     * @param start   The time it started at.
+     * @return The start time of the next section, to give to stop or lap.
+     */
+    public long lap(int section, long start){
+        if (!this.enabled){
+            return 0;
+        }
+        long now = System.nanoTime();
+        record(section, now - start);
+        return now;
+    }
+
+    /**
+     * Records a duration of a section.
+     *
+     * @param section The section, one of the section constants.
+     * @param nanos   The duration, in nanoseconds.
+     */
+    public void record(int section, long nanos){
+        this.histograms[section][bucketOf(Math.max(nanos, 1))]++;
+        this.counts[section]++;
+        if (nanos > this.maxNanos[section]){
+            this.maxNanos[section] = nanos;
+        }
+    }
+
+    /**
+     * Ends a frame, and dumps the histograms if it is time to.
+     *
+     * @param deltaTime   The game time of the frame.
+     * @param gameObjects The game objects, counted by layer in the dump.
+     */
+    public void endFrame(float deltaTime, GameObjectCollection gameObjects){
+        this.gameTime += deltaTime;
+        this.sinceDump += deltaTime;
+        if (this.dumpFile != null && this.enabled && this.sinceDump >= this.dumpInterval){
+            this.sinceDump = 0;
+            dump(gameObjects);
+        }
+    }
+
+    /**
+     * Returns a percentile of the durations recorded for a section since the last dump.
+     *
+     * @param section    The section, one of the section constants.
+     * @param percentile The percentile, between 0 and 1.
+     * @return The upper bound of the bucket of the percentile, in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentile(int section, double percentile){
+        long count = this.counts[section];
+        if (count == 0){
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        long[] histogram = this.histograms[section];
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= Math.max(rank, 1)){
+                return Math.min(bucketTop(i), this.maxNanos[section]);
+            }
+        }
+        return this.maxNanos[section];
+    }
+
+    /**
+     * Returns the longest duration recorded for a section since the last dump.
+     *
+     * @param section The section, one of the section constants.
+     * @return The longest duration, in nanoseconds.
+     */
+    public long max(int section){
+        return this.maxNanos[section];
+    }
+
+    /**
+     * Appends the percentiles of all the sections and the object count of every layer to the dump file,
+     * and clears the histograms.
+     *
+     * @param gameObjects The game objects, counted by layer.
+     */
+    private void dump(GameObjectCollection gameObjects){
+        boolean header = !Files.exists(this.dumpFile);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(this.dumpFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header){
+                out.println("time,name,count,p50_us,p99_us,max_us");
+            }
+            for (int s = 0; s < SECTION_NAMES.length; s++) {
+                out.printf(Locale.ROOT, "%.1f,%s,%d,%.1f,%.1f,%.1f%n", this.gameTime, SECTION_NAMES[s],
+                        this.counts[s], percentile(s, 0.5) / 1e3, percentile(s, 0.99) / 1e3,
+                        this.maxNanos[s] / 1e3);
+            }
+            for (int l = 0; l < LAYERS.length; l++) {
+                out.printf(Locale.ROOT, "%.1f,layer_%s,%d,,,%n", this.gameTime, LAYER_NAMES[l],
+                        countLayer(gameObjects, LAYERS[l]));
+            }
+        } catch (IOException e) {
+            System.err.println("can't write the frame profile: " + e.getMessage());
+            this.enabled = false;
+        }
+        for (int s = 0; s < SECTION_NAMES.length; s++) {
+            Arrays.fill(this.histograms[s], 0);
+            this.counts[s] = 0;
+            this.maxNanos[s] = 0;
+        }
+    }
+
+    /**
+     * Counts the objects of a layer.
+     *
+     * @param gameObjects The game objects.
+     * @param layer       The layer.
+     * @return The number of objects in the layer.
+     */
+    private static int countLayer(GameObjectCollection gameObjects, int layer){
+        int count = 0;
+        for (GameObject ignored : gameObjects.objectsInLayer(layer)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the bucket of a duration: the power of two below it and the next SUB_BITS bits.
+     *
+     * @param nanos The duration, positive.
+     * @return The bucket.
+     */
+    private static int bucketOf(long nanos){
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent < SUB_BITS){
+            return (int) nanos;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    /**
+     * Returns the largest duration of a bucket.
+     *
+     * @param bucket The bucket.
+     * @return The largest duration, in nanoseconds.
+     */
+    private static long bucketTop(int bucket){
+        if (bucket < (1 << SUB_BITS)){
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+        int sub = bucket & ((1 << SUB_BITS) - 1);
+        return ((long) ((1 << SUB_BITS) + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
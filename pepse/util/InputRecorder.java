@@ -0,0 +1,131 @@
+package pepse.util;
+
+import danogl.gui.UserInputListener;
+
+import java.awt.event.KeyEvent;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records the keys the avatar reads in every frame, with the time of the frame and the start of the
+ * session, so a session can be replayed exactly without a window.
+ * The log is binary: a header with the magic, the version and the recorded session start, and then
+ * 5 bytes per frame, the frame time as a float and a byte with a bit for each of the KEYS.
+ */
+public class InputRecorder {
+
+    /**
+     * The first int of a log.
+     */
+    public static final int MAGIC = 0x50455049;
+
+    /**
+     * The version of the log format.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The size of the header of a log, in bytes.
+     */
+    public static final int HEADER_BYTES = 2 * Integer.BYTES + RecordedSession.BYTES;
+
+    /**
+     * The recorded keys, bit i of a frame is set if KEYS[i] was pressed.
+     */
+    public static final int[] KEYS = {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_SPACE};
+
+    /**
+     * The number of frames between two flushes of the log.
+     */
+    private static final int FLUSH_EVERY = 256;
+
+    /**
+     * The log, or null once writing it failed.
+     */
+    private DataOutputStream out;
+
+    /**
+     * The number of frames recorded so far.
+     */
+    private int frames;
+
+    /**
+     * Constructs a new recorder.
+     *
+     * @param out The log.
+     */
+    private InputRecorder(DataOutputStream out){
+        this.out = out;
+    }
+
+    /**
+     * Starts a log in a file, it is replaced if it exists. The log is closed when the game exits.
+     * If the file can't be written the error is printed and null is returned, the game runs without
+     * recording.
+     *
+     * @param file    The log file.
+     * @param session The start of the session.
+     * @return The recorder, or null.
+     */
+    public static InputRecorder open(Path file, RecordedSession session){
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            session.write(out);
+            InputRecorder recorder = new InputRecorder(out);
+            Runtime.getRuntime().addShutdownHook(new Thread(recorder::close));
+            return recorder;
+        } catch (IOException e) {
+            System.err.println("can't record the input to " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records a frame, before the avatar reads the keys in it.
+     *
+     * @param deltaTime     The time of the frame.
+     * @param inputListener The input the avatar reads.
+     */
+    public synchronized void record(float deltaTime, UserInputListener inputListener){
+        if (this.out == null){
+            return;
+        }
+        int keys = 0;
+        for (int i = 0; i < KEYS.length; i++) {
+            if (inputListener.isKeyPressed(KEYS[i])){
+                keys |= 1 << i;
+            }
+        }
+        try {
+            this.out.writeFloat(deltaTime);
+            this.out.writeByte(keys);
+            if (++this.frames % FLUSH_EVERY == 0){
+                this.out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("can't record the input: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Flushes and closes the log, nothing is recorded after it.
+     */
+    public synchronized void close(){
+        if (this.out == null){
+            return;
+        }
+        try {
+            this.out.close();
+        } catch (IOException e) {
+            System.err.println("can't close the input log: " + e.getMessage());
+        }
+        this.out = null;
+    }
+}
@@ -0,0 +1,95 @@
+package pepse.util;
+
+import java.util.ArrayDeque;
+
+/**
+ * A bounded pool of objects that can be reused instead of allocated again.
+ * It counts how many requests were served from the pool (hits) and how many found it empty (misses).
+ *
+ * @param <T> The type of the pooled objects.
+ */
+public class ObjectPool<T> {
+
+    /**
+     * The free objects.
+     */
+    private final ArrayDeque<T> free = new ArrayDeque<>();
+
+    /**
+     * The maximal number of free objects kept in the pool.
+     */
+    private final int maxSize;
+
+    /**
+     * The number of requests served from the pool.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of requests that found the pool empty.
+     */
+    private long misses = 0;
+
+    /**
+     * Constructs a new empty pool.
+     *
+     * @param maxSize The maximal number of free objects kept in the pool.
+     */
+    public ObjectPool(int maxSize){
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Takes a free object from the pool.
+     *
+     * @return A free object, or null if the pool is empty and a new object should be created.
+     */
+    public T poll(){
+        T object = this.free.poll();
+        if (object == null){
+            this.misses++;
+        }
+        else {
+            this.hits++;
+        }
+        return object;
+    }
+
+    /**
+     * Returns an object that is no longer used to the pool. If the pool is full the object is dropped.
+     *
+     * @param object The object.
+     */
+    public void release(T object){
+        if (this.free.size() < this.maxSize){
+            this.free.push(object);
+        }
+    }
+
+    /**
+     * Returns the number of free objects in the pool.
+     *
+     * @return The number of free objects.
+     */
+    public int size(){
+        return this.free.size();
+    }
+
+    /**
+     * Returns the number of requests served from the pool.
+     *
+     * @return The number of hits.
+     */
+    public long getHits(){
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of requests that found the pool empty.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses(){
+        return this.misses;
+    }
+}
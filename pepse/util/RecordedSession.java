@@ -0,0 +1,167 @@
+package pepse.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * The start of a recorded session, everything a replay needs besides the input to make the same run:
+ * the seed of the world, the window dimensions the terrain and the streaming ranges are made from,
+ * the simulation rate, and the position and energy the avatar started with.
+ * It is the header of an input log.
+ */
+public class RecordedSession {
+
+    /**
+     * The size of the session in a log, in bytes.
+     */
+    public static final int BYTES = 7 * 4;
+
+    /**
+     * The seed of the world.
+     */
+    private final int seed;
+
+    /**
+     * The width of the game window.
+     */
+    private final float windowWidth;
+
+    /**
+     * The height of the game window.
+     */
+    private final float windowHeight;
+
+    /**
+     * The number of simulation steps per second.
+     */
+    private final int simulationRate;
+
+    /**
+     * The x-coordinate of the top-left corner of the avatar at the start.
+     */
+    private final float avatarX;
+
+    /**
+     * The y-coordinate of the top-left corner of the avatar at the start.
+     */
+    private final float avatarY;
+
+    /**
+     * The energy of the avatar at the start.
+     */
+    private final float energy;
+
+    /**
+     * Constructs a new session start.
+     *
+     * @param seed           The seed of the world.
+     * @param windowWidth    The width of the game window.
+     * @param windowHeight   The height of the game window.
+     * @param simulationRate The number of simulation steps per second.
+     * @param avatarX        The x-coordinate of the top-left corner of the avatar.
+     * @param avatarY        The y-coordinate of the top-left corner of the avatar.
+     * @param energy         The energy of the avatar.
+     */
+    public RecordedSession(int seed, float windowWidth, float windowHeight, int simulationRate,
+                           float avatarX, float avatarY, float energy){
+        this.seed = seed;
+        this.windowWidth = windowWidth;
+        this.windowHeight = windowHeight;
+        this.simulationRate = simulationRate;
+        this.avatarX = avatarX;
+        this.avatarY = avatarY;
+        this.energy = energy;
+    }
+
+    /**
+     * Reads a session start from a log.
+     *
+     * @param in The log, after its magic and version.
+     * @return The session start.
+     * @throws IOException If the log can't be read.
+     */
+    public static RecordedSession read(DataInputStream in) throws IOException {
+        return new RecordedSession(in.readInt(), in.readFloat(), in.readFloat(), in.readInt(),
+                in.readFloat(), in.readFloat(), in.readFloat());
+    }
+
+    /**
+     * Writes the session start to a log.
+     *
+     * @param out The log, after its magic and version.
+     * @throws IOException If the log can't be written.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(this.seed);
+        out.writeFloat(this.windowWidth);
+        out.writeFloat(this.windowHeight);
+        out.writeInt(this.simulationRate);
+        out.writeFloat(this.avatarX);
+        out.writeFloat(this.avatarY);
+        out.writeFloat(this.energy);
+    }
+
+    /**
+     * Returns the seed of the world.
+     *
+     * @return The seed.
+     */
+    public int getSeed(){
+        return this.seed;
+    }
+
+    /**
+     * Returns the width of the game window.
+     *
+     * @return The window width.
+     */
+    public float getWindowWidth(){
+        return this.windowWidth;
+    }
+
+    /**
+     * Returns the height of the game window.
+     *
+     * @return The window height.
+     */
+    public float getWindowHeight(){
+        return this.windowHeight;
+    }
+
+    /**
+     * Returns the number of simulation steps per second.
+     *
+     * @return The simulation rate.
+     */
+    public int getSimulationRate(){
+        return this.simulationRate;
+    }
+
+    /**
+     * Returns the x-coordinate of the top-left corner of the avatar at the start.
+     *
+     * @return The x-coordinate.
+     */
+    public float getAvatarX(){
+        return this.avatarX;
+    }
+
+    /**
+     * Returns the y-coordinate of the top-left corner of the avatar at the start.
+     *
+     * @return The y-coordinate.
+     */
+    public float getAvatarY(){
+        return this.avatarY;
+    }
+
+    /**
+     * Returns the energy of the avatar at the start.
+     *
+     * @return The energy.
+     */
+    public float getEnergy(){
+        return this.energy;
+    }
+}
@@ -0,0 +1,138 @@
+package pepse.util;
+
+import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A shared cache of renderables. Game objects that look the same share a single renderable instead of
+ * each allocating its own, and every base color has a bounded set of color-varied rectangles,
+ * so the number of renderables doesn't grow with the size of the world.
+ */
+public class RenderablePalette {
+
+    /**
+     * The number of approximated shades created for each base color.
+     */
+    private static final int VARIANTS = 8;
+
+    /**
+     * The approximated shades of each base color.
+     */
+    private static final Map<Color, Color[]> approximatedColors = new HashMap<>();
+
+    /**
+     * The rectangles of the approximated shades of each base color.
+     */
+    private static final Map<Color, Renderable[]> approximatedRectangles = new HashMap<>();
+
+    /**
+     * The rectangles of each exact color.
+     */
+    private static final Map<Color, Renderable> rectangles = new HashMap<>();
+
+    /**
+     * The ovals of each exact color.
+     */
+    private static final Map<Color, Renderable> ovals = new HashMap<>();
+
+    /**
+     * default constructor.
+     */
+    private RenderablePalette(){}
+
+    /**
+     * Returns a shared rectangle with a color close to the base color.
+     * The same key always gives the same shade, so neighbouring objects can be given different shades
+     * by passing their grid position as the key.
+     *
+     * @param base The base color.
+     * @param key  Any number that picks one of the shades, usually a grid position.
+     * @return A shared rectangle renderable.
+     */
+    public static synchronized Renderable approximateRectangle(Color base, int key){
+        Renderable[] shades = approximatedRectangles.get(base);
+        if (shades == null){
+            Color[] colors = shadesOf(base);
+            shades = new Renderable[VARIANTS];
+            for (int i = 0; i < VARIANTS; i++) {
+                shades[i] = new RectangleRenderable(colors[i]);
+            }
+            approximatedRectangles.put(base, shades);
+        }
+        return shades[shade(key)];
+    }
+
+    /**
+     * Returns a rectangle drawn as a grid of cells in the shades of approximateRectangle, every cell has
+     * the shade a separate rectangle with the key of the cell would have. The key of a cell is its
+     * column * depth + its row, so a merged body of terrain looks like the blocks it replaces.
+     * A grid is made for every call, since its cells are different from any other.
+     *
+     * @param base        The base color.
+     * @param firstColumn The column of the left cells.
+     * @param firstRow    The row of the top cells.
+     * @param columns     The number of columns.
+     * @param rows        The number of rows.
+     * @param depth       The difference between the keys of two neighbouring columns.
+     * @return A new grid renderable.
+     */
+    public static synchronized Renderable approximateGrid(Color base, int firstColumn, int firstRow,
+                                                          int columns, int rows, int depth){
+        return new ShadedGridRenderable(shadesOf(base), firstColumn * depth + firstRow,
+                columns, rows, depth);
+    }
+
+    /**
+     * Returns the index of the shade of a key.
+     *
+     * @param key Any number that picks one of the shades.
+     * @return The index of the shade, less than VARIANTS.
+     */
+    static int shade(int key){
+        // spreads consecutive keys over the shades so a row of blocks doesn't repeat a visible pattern.
+        return ((key * 0x9E3779B1) >>> 16) % VARIANTS;
+    }
+
+    /**
+     * Returns the approximated shades of a base color, they are made the first time.
+     *
+     * @param base The base color.
+     * @return The VARIANTS shades.
+     */
+    private static Color[] shadesOf(Color base){
+        Color[] colors = approximatedColors.get(base);
+        if (colors == null){
+            colors = new Color[VARIANTS];
+            for (int i = 0; i < VARIANTS; i++) {
+                colors[i] = ColorSupplier.approximateColor(base);
+            }
+            approximatedColors.put(base, colors);
+        }
+        return colors;
+    }
+
+    /**
+     * Returns a shared rectangle of the exact color.
+     *
+     * @param color The color of the rectangle.
+     * @return A shared rectangle renderable.
+     */
+    public static synchronized Renderable rectangle(Color color){
+        return rectangles.computeIfAbsent(color, RectangleRenderable::new);
+    }
+
+    /**
+     * Returns a shared oval of the exact color.
+     *
+     * @param color The color of the oval.
+     * @return A shared oval renderable.
+     */
+    public static synchronized Renderable oval(Color color){
+        return ovals.computeIfAbsent(color, OvalRenderable::new);
+    }
+}
@@ -0,0 +1,93 @@
+package pepse.util;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.*;
+
+/**
+ * A rectangle drawn as a grid of cells, every cell with its own shade of a base color, picked by the
+ * same key a separate block in that cell would be given. A merged body of ground looks like the blocks
+ * it stands for, and is still one game object.
+ * Cells are keyed by column * depth + row, like the blocks of a terrain column. The ground is never
+ * rotated or flipped, so the rotation and the flips are ignored.
+ */
+class ShadedGridRenderable implements Renderable {
+
+    /**
+     * The shades of the base color.
+     */
+    private final Color[] shades;
+
+    /**
+     * The key of the top-left cell.
+     */
+    private final int firstKey;
+
+    /**
+     * The number of columns of cells.
+     */
+    private final int columns;
+
+    /**
+     * The number of rows of cells.
+     */
+    private final int rows;
+
+    /**
+     * The difference between the keys of two neighbouring columns.
+     */
+    private final int depth;
+
+    /**
+     * Constructs a new grid.
+     *
+     * @param shades   The shades of the base color.
+     * @param firstKey The key of the top-left cell.
+     * @param columns  The number of columns of cells.
+     * @param rows     The number of rows of cells.
+     * @param depth    The difference between the keys of two neighbouring columns.
+     */
+    ShadedGridRenderable(Color[] shades, int firstKey, int columns, int rows, int depth){
+        this.shades = shades;
+        this.firstKey = firstKey;
+        this.columns = columns;
+        this.rows = rows;
+        this.depth = depth;
+    }
+
+    /**
+     * Draws the cells, the edges of a cell are rounded to whole pixels the same way as the edges of its
+     * neighbours, so there are no gaps between them.
+     *
+     * @param g                       The graphics to draw on.
+     * @param topLeftCorner           The top-left corner on the screen.
+     * @param dimensions              The dimensions on the screen.
+     * @param degreesCounterClockwise The rotation, ignored.
+     * @param isFlippedHorizontally   Whether it is flipped horizontally, ignored.
+     * @param isFlippedVertically     Whether it is flipped vertically, ignored.
+     * @param opaqueness              The opaqueness, from 0 to 1.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness){
+        Composite composite = g.getComposite();
+        if (opaqueness < 1){
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+        float cellWidth = dimensions.x() / this.columns;
+        float cellHeight = dimensions.y() / this.rows;
+        for (int c = 0; c < this.columns; c++) {
+            int x = Math.round(topLeftCorner.x() + c * cellWidth);
+            int width = Math.round(topLeftCorner.x() + (c + 1) * cellWidth) - x;
+            for (int r = 0; r < this.rows; r++) {
+                int y = Math.round(topLeftCorner.y() + r * cellHeight);
+                int height = Math.round(topLeftCorner.y() + (r + 1) * cellHeight) - y;
+                g.setColor(this.shades[RenderablePalette.shade(this.firstKey + c * this.depth + r)]);
+                g.fillRect(x, y, width, height);
+            }
+        }
+        g.setComposite(composite);
+    }
+}
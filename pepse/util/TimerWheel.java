@@ -0,0 +1,287 @@
+package pepse.util;
+
+/**
+ * A hierarchical timer wheel for delayed world events, driven by the game time.
+ * Time is counted in ticks of TICK_TIME seconds. The wheel has LEVELS levels of SLOTS slots, a slot of
+ * level 0 holds the timers of one tick, a slot of level 1 the timers of SLOTS ticks and so on, so a
+ * timer is always in the slot of its deadline at the finest level that reaches it. On every tick the
+ * timers of one level 0 slot expire, and when a level wraps around the next slot of the level above is
+ * spread down. Scheduling, cancelling and expiring a timer are O(1), and a tick costs the same however
+ * many timers are pending.
+ * Timers are intrusive: an object that waits for something keeps one Timer and schedules it again and
+ * again, so scheduling never allocates.
+ */
+public class TimerWheel {
+
+    /**
+     * A timer that can be scheduled on a wheel. It is in at most one slot at a time.
+     */
+    public abstract static class Timer {
+
+        /**
+         * The tick the timer expires at.
+         */
+        private long deadline;
+
+        /**
+         * The previous timer in the slot.
+         */
+        private Timer previous;
+
+        /**
+         * The next timer in the slot.
+         */
+        private Timer next;
+
+        /**
+         * The wheel the timer is scheduled on, or null if it isn't scheduled.
+         */
+        private TimerWheel wheel;
+
+        /**
+         * The slot of the timer, level * SLOTS + index.
+         */
+        private int slot;
+
+        /**
+         * Checks if the timer is scheduled.
+         *
+         * @return true if the timer waits to expire.
+         */
+        public boolean isScheduled(){
+            return this.wheel != null;
+        }
+
+        /**
+         * Returns the tick the timer expires at, it means something only while it is scheduled.
+         *
+         * @return The tick of the deadline.
+         */
+        public long getDeadline(){
+            return this.deadline;
+        }
+
+        /**
+         * Called when the timer expires, it may schedule the timer again.
+         */
+        protected abstract void expire();
+    }
+
+    /**
+     * The length of a tick, in seconds.
+     */
+    public static final float TICK_TIME = 0.05f;
+
+    /**
+     * The number of bits of the slot index of a level.
+     */
+    private static final int SLOT_BITS = 6;
+
+    /**
+     * The number of slots of a level.
+     */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * The mask of a slot index.
+     */
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * The number of levels. The wheel reaches SLOTS^LEVELS ticks ahead, about 9 hours.
+     */
+    private static final int LEVELS = 4;
+
+    /**
+     * The longest delay of a timer, in ticks. Longer delays are cut to it.
+     */
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * The first timer of every slot of every level.
+     */
+    private final Timer[] slots = new Timer[LEVELS * SLOTS];
+
+    /**
+     * The current tick.
+     */
+    private long tick;
+
+    /**
+     * The game time since the last tick, in seconds.
+     */
+    private float sinceTick;
+
+    /**
+     * The number of scheduled timers.
+     */
+    private int pending;
+
+    /**
+     * Schedules a timer, if it is scheduled already it is moved to the new time.
+     *
+     * @param timer The timer.
+     * @param delay The time until it expires, in seconds. It expires on the first tick after it.
+     */
+    public void schedule(Timer timer, float delay){
+        long ticks = Math.max(1, (long) Math.ceil((delay - this.sinceTick) / TICK_TIME));
+        scheduleAt(timer, this.tick + Math.min(ticks, MAX_DELAY));
+    }
+
+    /**
+     * Schedules a timer to expire at a tick, if it is scheduled already it is moved to the new tick.
+     * A tick that passed already is the next one, a tick too far ahead is cut to the longest delay.
+     *
+     * @param timer    The timer.
+     * @param deadline The tick it expires at.
+     */
+    public void scheduleAt(Timer timer, long deadline){
+        cancel(timer);
+        timer.deadline = Math.min(Math.max(deadline, this.tick + 1), this.tick + MAX_DELAY);
+        timer.wheel = this;
+        this.pending++;
+        place(timer);
+    }
+
+    /**
+     * Cancels a timer, if it isn't scheduled nothing happens.
+     *
+     * @param timer The timer.
+     */
+    public void cancel(Timer timer){
+        if (timer.wheel != this){
+            return;
+        }
+        unlink(timer);
+        timer.wheel = null;
+        this.pending--;
+    }
+
+    /**
+     * Advances the wheel by the game time, the timers whose time came expire.
+     *
+     * @param deltaTime The time elapsed since the last update.
+     */
+    public void advance(float deltaTime){
+        this.sinceTick += deltaTime;
+        while (this.sinceTick >= TICK_TIME) {
+            this.sinceTick -= TICK_TIME;
+            tick();
+        }
+    }
+
+    /**
+     * Returns the current tick, the game time of the world in ticks.
+     *
+     * @return The current tick.
+     */
+    public long now(){
+        return this.tick;
+    }
+
+    /**
+     * Moves the wheel to the tick an earlier session of the world stopped at, so the ticks saved then
+     * still mean the same time. It is done before anything is scheduled.
+     *
+     * @param tick The tick to go on from.
+     * @throws IllegalStateException If timers are scheduled.
+     */
+    public void resume(long tick){
+        if (this.pending != 0){
+            throw new IllegalStateException("the wheel can't move while timers are scheduled");
+        }
+        this.tick = tick;
+    }
+
+    /**
+     * Returns the number of scheduled timers.
+     *
+     * @return The number of scheduled timers.
+     */
+    public int pending(){
+        return this.pending;
+    }
+
+    /**
+     * Moves to the next tick: spreads down the levels that wrapped around and expires the timers of
+     * the tick.
+     */
+    private void tick(){
+        this.tick++;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((this.tick & ((1L << (SLOT_BITS * level)) - 1)) != 0){
+                break;
+            }
+            cascade(level, (int) (this.tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        }
+        int slot = (int) this.tick & SLOT_MASK;
+        Timer timer = this.slots[slot];
+        this.slots[slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            timer.wheel = null;
+            this.pending--;
+            timer.expire();
+            timer = next;
+        }
+    }
+
+    /**
+     * Moves the timers of a slot of a level to the slots of their deadlines at the levels below.
+     *
+     * @param level The level.
+     * @param index The index of the slot.
+     */
+    private void cascade(int level, int index){
+        int slot = level * SLOTS + index;
+        Timer timer = this.slots[slot];
+        this.slots[slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.previous = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    /**
+     * Puts a timer in the slot of its deadline, at the finest level that reaches it.
+     *
+     * @param timer The timer.
+     */
+    private void place(Timer timer){
+        long delay = Math.max(0, timer.deadline - this.tick);
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = level * SLOTS + ((int) (timer.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        timer.slot = slot;
+        timer.next = this.slots[slot];
+        if (timer.next != null){
+            timer.next.previous = timer;
+        }
+        this.slots[slot] = timer;
+    }
+
+    /**
+     * Takes a timer out of its slot.
+     *
+     * @param timer The timer.
+     */
+    private void unlink(Timer timer){
+        if (timer.previous != null){
+            timer.previous.next = timer.next;
+        } else {
+            this.slots[timer.slot] = timer.next;
+        }
+        if (timer.next != null){
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+    }
+}
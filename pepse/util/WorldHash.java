@@ -0,0 +1,67 @@
+package pepse.util;
+
+/**
+ * Stateless random numbers for world generation.
+ * Every value is a hash of the world seed, a column and a feature number, so any part of the world can
+ * be generated on its own, in any order and on any thread, and always comes out the same.
+ */
+public class WorldHash {
+
+    /**
+     * default constructor.
+     */
+    private WorldHash(){}
+
+    /**
+     * Returns a well mixed 32-bit hash of the seed, the column and the feature.
+     *
+     * @param seed    The world seed.
+     * @param column  The column, the x-coordinate divided by the block size.
+     * @param feature The number of the generated feature, different features of the same column
+     *                get unrelated values.
+     * @return The hash.
+     */
+    public static int hash(int seed, int column, int feature){
+        return mix(seed ^ mix(column ^ mix(feature)));
+    }
+
+    /**
+     * Returns a number in [0, 1) made of the hash of the seed, the column and the feature.
+     *
+     * @param seed    The world seed.
+     * @param column  The column.
+     * @param feature The number of the generated feature.
+     * @return A number in [0, 1).
+     */
+    public static float unit(int seed, int column, int feature){
+        return (hash(seed, column, feature) >>> 8) * 0x1.0p-24f;
+    }
+
+    /**
+     * Returns a number in [0, bound) made of the hash of the seed, the column and the feature.
+     *
+     * @param seed    The world seed.
+     * @param column  The column.
+     * @param feature The number of the generated feature.
+     * @param bound   The upper bound (excluded), should be positive.
+     * @return A number in [0, bound).
+     */
+    public static int below(int seed, int column, int feature, int bound){
+        return (int) (((hash(seed, column, feature) & 0xFFFFFFFFL) * bound) >>> 32);
+    }
+
+    /**
+     * Mixes the bits of an int so that close inputs give unrelated outputs.
+     *
+     * @param x The input.
+     * @return The mixed bits.
+     */
+    private static int mix(int x){
+        x ^= x >>> 16;
+        x *= 0x7FEB352D;
+        x ^= x >>> 15;
+        x *= 0x846CA68B;
+        x ^= x >>> 16;
+        return x;
+    }
+}
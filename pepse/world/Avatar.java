@@ -1,16 +1,17 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.collisions.GameObjectCollection;
-import danogl.gui.ImageReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.*;
 import danogl.util.Vector2;
+import pepse.util.AssetRegistry;
+import pepse.util.FrameProfiler;
 
 
 
-import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import java.util.stream.Stream;
 
 /**
  * The Avatar class represents the player's character in the game.
@@ -32,15 +33,26 @@ public class Avatar extends GameObject {
      */
     private static final float GRAVITY = 600;
 
+    /**
+     * The energy the avatar loses every second it runs in a direction.
+     */
+    private static final float RUN_ENERGY_RATE = 20;
+
+    /**
+     * The energy the avatar gains every second it stands on the ground.
+     */
+    private static final float REST_ENERGY_RATE = 40;
+
     /**
      *  The energy level of the avatar.
      */
-    public static float energyVal = 100;
+    private float energyVal = 100;
 
     /**
-     * all the game objects, used it to update the energy show.
+     * The energy level that was last published to the world events, rounded to a whole number.
+     * The energy changes a little on almost every step, it is published only when the whole number does.
      */
-    private final GameObjectCollection collection;
+    private int publishedEnergy = Math.round(energyVal);
 
     /**
      * The user input listener for controlling the avatar.
@@ -48,14 +60,43 @@ public class Avatar extends GameObject {
     private final UserInputListener inputListener;
 
     /**
-     * the game object that contains the number of the current energy.
+     * The world events, the avatar publishes its jumps and energy changes to it.
+     */
+    private final WorldEvents events;
+
+    /**
+     * Measures the time of the avatar update.
+     */
+    private final FrameProfiler profiler;
+
+    /**
+     * The frames of the idle animation.
+     */
+    private static final String[] IDLE_FRAMES = {"assets/idle_0.png", "assets/idle_1.png",
+            "assets/idle_2.png", "assets/idle_3.png"};
+
+    /**
+     * The frames of the running animation.
+     */
+    private static final String[] RUN_FRAMES = {"assets/run_0.png", "assets/run_1.png", "assets/run_2.png",
+            "assets/run_3.png", "assets/run_4.png", "assets/run_5.png"};
+
+    /**
+     * The frames of the jumping animation.
+     */
+    private static final String[] JUMP_FRAMES = {"assets/jump_0.png", "assets/jump_1.png",
+            "assets/jump_2.png", "assets/jump_3.png"};
+
+    /**
+     * The time every frame of an animation is shown.
      */
-    private GameObject energyShow;
+    private static final double FRAME_TIME = 0.1;
 
     /**
-     * a boolean flag that show if the avatar is jumping ot not.
+     * All the images of the avatar, to preload.
      */
-    public static boolean isJumping = false;
+    public static final String[] ASSETS = Stream.of(IDLE_FRAMES, RUN_FRAMES, JUMP_FRAMES)
+            .flatMap(Arrays::stream).toArray(String[]::new);
 
     /**
      * An array containing all the animations for the avatar.
@@ -78,71 +119,23 @@ public class Avatar extends GameObject {
      *
      * @param pos           The initial position of the avatar.
      * @param inputListener The user input listener to control the avatar.
-     * @param imageReader   The image reader for loading avatar images.
-     * @param collection    The game object collection to manage game objects.
+     * @param assets        The asset registry the avatar images are taken from.
+     * @param events        The world events, the avatar publishes to it and eats the fruits it announces.
+     * @param profiler      The frame profiler, measures the avatar update.
      */
-    public Avatar(Vector2 pos, UserInputListener inputListener, ImageReader imageReader,
-                  GameObjectCollection collection) {
-        super(pos, Vector2.ONES.mult(50), imageReader.readImage("assets/idle_0.png",
-                        false));
+    public Avatar(Vector2 pos, UserInputListener inputListener, AssetRegistry assets,
+                  WorldEvents events, FrameProfiler profiler) {
+        super(pos, Vector2.ONES.mult(50), assets.image(IDLE_FRAMES[0]));
 
-        this.collection = collection;
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         transform().setAccelerationY(GRAVITY);
         this.inputListener = inputListener;
-        this.allAnimations[0] = idleAnimation(imageReader);
-        this.allAnimations[1] = runAnimation(imageReader);
-        this.allAnimations[2] = jumpAnimation(imageReader);
-    }
-
-    /**
-     * Creates the running animation for the avatar.
-     *
-     * @param imageReader The image reader for loading animation frames.
-     * @return The animation renderable for the running animation.
-     */
-    private AnimationRenderable runAnimation(ImageReader imageReader){
-        return new AnimationRenderable(new Renderable[]{
-                imageReader.readImage("assets/run_0.png", false),
-                imageReader.readImage("assets/run_1.png", false),
-                imageReader.readImage("assets/run_2.png", false)
-                , imageReader.readImage("assets/run_3.png", false),
-                imageReader.readImage("assets/run_4.png", false),
-                imageReader.readImage("assets/run_5.png", false)},
-                0.1);
-    }
-
-
-    /**
-     * Creates the jumping animation for the avatar.
-     *
-     * @param imageReader The image reader for loading animation frames.
-     * @return The animation renderable for the jumping animation.
-     */
-    private AnimationRenderable jumpAnimation(ImageReader imageReader){
-
-        return new AnimationRenderable(new Renderable[]{
-                imageReader.readImage("assets/jump_0.png", false),
-                imageReader.readImage("assets/jump_1.png", false),
-                imageReader.readImage("assets/jump_2.png", false)
-                , imageReader.readImage("assets/jump_3.png", false)},
-                0.1);
-    }
-
-    /**
-     * Creates the idle animation for the avatar.
-     *
-     * @param imageReader The image reader for loading animation frames.
-     * @return The animation renderable for the idle animation.
-     */
-    private AnimationRenderable idleAnimation(ImageReader imageReader){
-
-        return new AnimationRenderable(new Renderable[]{
-                imageReader.readImage("assets/idle_0.png", false),
-                imageReader.readImage("assets/idle_1.png", false),
-                imageReader.readImage("assets/idle_2.png", false)
-                , imageReader.readImage("assets/idle_3.png", false)},
-                0.1);
+        this.allAnimations[0] = assets.animation(IDLE_FRAMES, FRAME_TIME);
+        this.allAnimations[1] = assets.animation(RUN_FRAMES, FRAME_TIME);
+        this.allAnimations[2] = assets.animation(JUMP_FRAMES, FRAME_TIME);
+        this.events = events;
+        this.profiler = profiler;
+        events.newGroup().subscribe(WorldEvents.Type.FRUIT_EATEN, energy -> this.energyVal += energy);
     }
 
     /**
@@ -152,47 +145,73 @@ public class Avatar extends GameObject {
      */
     @Override
     public void update(float deltaTime) {
+        long start = profiler.start();
         super.update(deltaTime);
         float xVel = 0;
-        checkKeysPressed(xVel);
-        showLifeEnergy(energyVal);
+        checkKeysPressed(xVel, deltaTime);
         checkAnimation();
+        int roundedEnergy = Math.round(energyVal);
+        if (roundedEnergy != publishedEnergy){
+            publishedEnergy = roundedEnergy;
+            events.publish(WorldEvents.Type.ENERGY_CHANGED, roundedEnergy);
+        }
+        profiler.stop(FrameProfiler.AVATAR, start);
 
     }
 
     /**
      * Checks the user input keys and updates the avatar's velocity and energy level accordingly.
+     * The energy changes by rates per second, so it doesn't depend on the length of the steps.
      *
-     * @param xVel The horizontal velocity of the avatar.
+     * @param xVel      The horizontal velocity of the avatar.
+     * @param deltaTime The time of the simulation step.
      */
-    private void checkKeysPressed(float xVel) {
-        isJumping = false;
+    private void checkKeysPressed(float xVel, float deltaTime) {
         if(!inputListener.isKeyPressed(KeyEvent.VK_RIGHT) && !inputListener.isKeyPressed(KeyEvent.VK_LEFT)
                 && getVelocity().y() == 0){
             if(energyVal < MAX_ENERGY){
-                energyVal += 1;
+                energyVal += REST_ENERGY_RATE * deltaTime;
 
             }
         }
-        xVel = checkIFLeftRightPressed(xVel);
-        transform().setVelocityX(xVel);
+        xVel = checkIFLeftRightPressed(xVel, deltaTime);
+        if (getVelocity().x() != xVel){
+            transform().setVelocityX(xVel);
+        }
         if(inputListener.isKeyPressed(KeyEvent.VK_SPACE) && getVelocity().y() == 0){
             if(energyVal >= 10){
                 transform().setVelocityY(VELOCITY_Y);
                 energyVal -= 10;
-                isJumping = true;
+                events.publish(WorldEvents.Type.JUMP_STARTED, 0);
             }
         }
-        updateEnergyShow();
+        checkEnergyRange();
+    }
+
+    /**
+     * Returns the energy level of the avatar.
+     *
+     * @return The energy level of the avatar.
+     */
+    public float getEnergy(){
+        return energyVal;
+    }
+
+    /**
+     * Sets the energy level of the avatar to a saved one.
+     *
+     * @param energy The saved energy level.
+     */
+    public void restoreEnergy(float energy){
+        energyVal = energy;
+        checkEnergyRange();
+        publishedEnergy = Math.round(energyVal);
     }
 
     /**
      * this function checks if the energy is in the available range and updates it.
      */
-    private void updateEnergyShow() {
-        if (this.energyShow != null){
-            this.collection.removeGameObject(this.energyShow);
-        }
+    private void checkEnergyRange() {
         if(energyVal>MAX_ENERGY){
             energyVal=MAX_ENERGY;
         }
@@ -205,19 +224,20 @@ public class Avatar extends GameObject {
      * this function checks if the left or right arrows are pressed and applies the needed
      * functionality.
      * @param xVel the current Horizontal velocity.
+     * @param deltaTime the time of the simulation step.
      * @return the new velocity.
      */
-    private float checkIFLeftRightPressed(float xVel) {
+    private float checkIFLeftRightPressed(float xVel, float deltaTime) {
         if(inputListener.isKeyPressed(KeyEvent.VK_LEFT)){
             if(energyVal!=MIN_ENERGY){
                 xVel -= VELOCITY_X;
-                energyVal-=0.5f;
+                energyVal = Math.max(MIN_ENERGY, energyVal - RUN_ENERGY_RATE * deltaTime);
             }
         }
         if(inputListener.isKeyPressed(KeyEvent.VK_RIGHT)){
             if(energyVal!=MIN_ENERGY){
                 xVel += VELOCITY_X;
-                energyVal -= 0.5f;
+                energyVal = Math.max(MIN_ENERGY, energyVal - RUN_ENERGY_RATE * deltaTime);
             }
         }
         return xVel;
@@ -243,16 +263,4 @@ public class Avatar extends GameObject {
             renderer().setRenderable(this.allAnimations[2]);
         }
     }
-
-    /**
-     * Displays the energy level of the avatar as a text renderable.
-     *
-     * @param energy The energy level of the avatar.
-     */
-    private void showLifeEnergy(float energy){
-        TextRenderable energyShow = new TextRenderable("Energy: "+ energy);
-        energyShow.setColor(Color.BLACK);
-        this.energyShow = new GameObject(new Vector2(50,50), new Vector2(30,30), energyShow);
-        this.collection.addGameObject(this.energyShow);
-    }
 }
@@ -0,0 +1,114 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.trees.TreeFruits;
+
+/**
+ * Collides the avatar with the world through the spatial grid, instead of the engine testing the avatar
+ * against every object of the colliding layers.
+ * The avatar is pushed out of the solid blocks it went into (the ground surface and the trunks) along
+ * the shorter way out, and its velocity towards the block is stopped, like the engine does for
+ * objects that prevent intersections. Fruits it touches are eaten.
+ * The floors and ceilings are resolved first over all the blocks, and only then the sides of what
+ * still overlaps. Otherwise a ground block the avatar only grazes could be met first and push it
+ * sideways on a flat seam between two blocks.
+ */
+public class AvatarCollisions {
+
+    /**
+     * The most objects the avatar can touch in one frame.
+     */
+    private static final int MAX_NEAR_OBJECTS = 64;
+
+    /**
+     * The grid of the solid blocks and the fruits.
+     */
+    private final SpatialGrid grid;
+
+    /**
+     * The objects near the avatar in the current frame, reused every frame.
+     */
+    private final GameObject[] nearObjects = new GameObject[MAX_NEAR_OBJECTS];
+
+    /**
+     * Constructs the avatar collisions.
+     *
+     * @param grid The grid of the solid blocks and the fruits.
+     */
+    public AvatarCollisions(SpatialGrid grid){
+        this.grid = grid;
+    }
+
+    /**
+     * Checks if an object takes part in the avatar collisions, and should be in the grid.
+     *
+     * @param object The object.
+     * @return true for fruits and for blocks that aren't buried.
+     */
+    public static boolean collidesWithAvatar(GameObject object){
+        return object instanceof TreeFruits ||
+                (object instanceof Block && !Terrain.UNDERGROUND_TAG.equals(object.getTag()));
+    }
+
+    /**
+     * Collides the avatar with the objects it overlaps after it moved.
+     *
+     * @param avatar The avatar.
+     */
+    public void resolve(GameObject avatar){
+        Vector2 topLeft = avatar.getTopLeftCorner();
+        Vector2 dimensions = avatar.getDimensions();
+        int count = this.grid.query(topLeft.x(), topLeft.y(), topLeft.x() + dimensions.x(),
+                topLeft.y() + dimensions.y(), this.nearObjects);
+        for (int i = 0; i < count; i++) {
+            GameObject object = this.nearObjects[i];
+            if (object instanceof TreeFruits){
+                ((TreeFruits) object).eat();
+            } else {
+                pushOut(avatar, object, true);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            GameObject object = this.nearObjects[i];
+            this.nearObjects[i] = null;
+            if (!(object instanceof TreeFruits)){
+                pushOut(avatar, object, false);
+            }
+        }
+    }
+
+    /**
+     * Pushes the avatar out of a solid block along the axis it overlaps the block less, and stops its
+     * velocity towards the block.
+     *
+     * @param avatar       The avatar.
+     * @param solid        The solid block.
+     * @param verticalOnly true to push the avatar out only if the shorter way out is up or down.
+     */
+    private static void pushOut(GameObject avatar, GameObject solid, boolean verticalOnly){
+        Vector2 a = avatar.getTopLeftCorner();
+        Vector2 aSize = avatar.getDimensions();
+        Vector2 b = solid.getTopLeftCorner();
+        Vector2 bSize = solid.getDimensions();
+        float overlapX = Math.min(a.x() + aSize.x(), b.x() + bSize.x()) - Math.max(a.x(), b.x());
+        float overlapY = Math.min(a.y() + aSize.y(), b.y() + bSize.y()) - Math.max(a.y(), b.y());
+        if (overlapX <= 0 || overlapY <= 0){
+            return;
+        }
+        Vector2 velocity = avatar.getVelocity();
+        if (overlapY <= overlapX){
+            boolean above = a.y() + aSize.y() / 2 < b.y() + bSize.y() / 2;
+            avatar.setTopLeftCorner(new Vector2(a.x(), above ? a.y() - overlapY : a.y() + overlapY));
+            if (above ? velocity.y() > 0 : velocity.y() < 0){
+                avatar.transform().setVelocityY(0);
+            }
+        } else if (!verticalOnly){
+            boolean left = a.x() + aSize.x() / 2 < b.x() + bSize.x() / 2;
+            avatar.setTopLeftCorner(new Vector2(left ? a.x() - overlapX : a.x() + overlapX, a.y()));
+            if (left ? velocity.x() > 0 : velocity.x() < 0){
+                avatar.transform().setVelocityX(0);
+            }
+        }
+    }
+}
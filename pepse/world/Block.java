@@ -1,13 +1,10 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.collisions.Collision;
-import danogl.collisions.Layer;
 import danogl.components.GameObjectPhysics;
-import danogl.gui.rendering.OvalRenderable;
-import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.RenderablePalette;
 
 import java.awt.*;
 import java.util.Random;
@@ -24,25 +21,18 @@ public class Block extends GameObject {
     public static final int SIZE = 30;
 
     /**
-     * tree trunk first color.
+     * The array of renderables representing different colors for the tree trunk,
+     * shared by all the trunks.
      */
-    RectangleRenderable trColor1 = new RectangleRenderable(new Color(100,50,20));
-    /**
-     * tree trunk second color.
-     */
-
-    RectangleRenderable trColor2 = new RectangleRenderable(new Color(128, 70, 27));
-
-    /**
-     * tree trunk third color.
-     */
-    RectangleRenderable trColor3 = new RectangleRenderable(new Color(111, 78, 55));
+    private static final Renderable[] TRUNK_COLORS = new Renderable[]{
+            RenderablePalette.rectangle(new Color(100,50,20)),
+            RenderablePalette.rectangle(new Color(128, 70, 27)),
+            RenderablePalette.rectangle(new Color(111, 78, 55))};
 
     /**
-     * The array of renderables representing different colors for the tree trunk.
+     * The random generator used to pick trunk colors, shared by all the trunks.
      */
-    private final Renderable[] trunkColors = new Renderable[]{trColor1, trColor2, trColor3};
-
+    private static final Random random = new Random();
 
 
 
@@ -59,27 +49,25 @@ public class Block extends GameObject {
     }
 
     /**
-     * Updates the block's behavior based on the game state.
+     * Resets a block that was taken back from the game so it can be used again.
      *
-     * @param deltaTime The time elapsed since the last update.
+     * @param topLeftCorner The new top-left corner of the block.
+     * @param dimensions    The new dimensions of the block.
+     * @param renderable    The new renderable of the block.
+     * @param tag           The new tag of the block.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        if (this.getTag().equals("trunk")){
-            checkIfJump();
-        }
+    public void reuse(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, String tag) {
+        setTopLeftCorner(topLeftCorner);
+        setDimensions(dimensions);
+        renderer().setRenderable(renderable);
+        setTag(tag);
     }
 
     /**
-     * Checks if the avatar is jumping and changes the block's color accordingly.
+     * Changes the block's color to a random trunk color, trunks do it when the avatar jumps.
      */
-    private void checkIfJump() {
-        if(Avatar.isJumping){
-            Random random = new Random();
-            int randColor = random.nextInt(3);
-            this.renderer().setRenderable(trunkColors[randColor]);
-        }
-
+    public void shuffleTrunkColor() {
+        int randColor = random.nextInt(TRUNK_COLORS.length);
+        this.renderer().setRenderable(TRUNK_COLORS[randColor]);
     }
 }
\ No newline at end of file
@@ -4,9 +4,9 @@ import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
-import danogl.gui.ImageReader;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.AssetRegistry;
 
 /**
  * The Clouds class is responsible for creating and managing cloud objects in the game world.
@@ -14,9 +14,14 @@ import danogl.util.Vector2;
 public class Clouds{
 
     /**
-     * The ImageReader instance to use for reading cloud images.
+     * The images of the clouds, to preload.
      */
-    private ImageReader imageReader;
+    public static final String[] ASSETS = {"cloud1.png", "cloud2.png", "cloud3.png"};
+
+    /**
+     * The asset registry the cloud images are taken from.
+     */
+    private AssetRegistry assets;
 
     /**
      * The GameObjectCollection instance to add the cloud objects to.
@@ -51,11 +56,11 @@ public class Clouds{
     /**
      * Creates a new Clouds instance.
      *
-     * @param imageReader   The ImageReader instance to use for reading cloud images.
+     * @param assets        The asset registry the cloud images are taken from.
      * @param gameObjects   The GameObjectCollection instance to add the cloud objects to.
      */
-    public Clouds(ImageReader imageReader, GameObjectCollection gameObjects){
-        this.imageReader = imageReader;
+    public Clouds(AssetRegistry assets, GameObjectCollection gameObjects){
+        this.assets = assets;
         this.gameObjects = gameObjects;
         create();
     }
@@ -64,19 +69,19 @@ public class Clouds{
      * Creates the cloud objects and adds them to the game world.
      */
     private void create(){
-        Renderable cloudImage1 = this.imageReader.readImage("cloud1.png", false);
+        Renderable cloudImage1 = this.assets.image(ASSETS[0]);
         GameObject cloud1 = new GameObject(CLOUD1_COORD, new Vector2
                 (this.CLOUD_SIZE,this.CLOUD_SIZE), cloudImage1);
         cloud1.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         this.gameObjects.addGameObject(cloud1, Layer.BACKGROUND);
 
-        Renderable cloudImage2 = this.imageReader.readImage("cloud2.png", false);
+        Renderable cloudImage2 = this.assets.image(ASSETS[1]);
         GameObject cloud2 = new GameObject(CLOUD2_COORD, new Vector2
                 (this.CLOUD_SIZE,this.CLOUD_SIZE), cloudImage2);
         cloud2.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         this.gameObjects.addGameObject(cloud2, Layer.BACKGROUND);
 
-        Renderable cloudImage3 = this.imageReader.readImage("cloud3.png", false);
+        Renderable cloudImage3 = this.assets.image(ASSETS[2]);
         GameObject cloud3 = new GameObject(CLOUD3_COORD, new Vector2
                 (this.CLOUD_SIZE,this.CLOUD_SIZE), cloudImage3);
         cloud3.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
@@ -0,0 +1,126 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.ObjectPool;
+import pepse.util.TimerWheel;
+import pepse.world.trees.TreeFruits;
+import pepse.world.trees.TreeLeaves;
+
+/**
+ * Pools of the world entities that are created and removed with the world chunks.
+ * Unloaded blocks, leaves and fruits are taken back and reset for the chunks that are loaded next,
+ * instead of constructing them again (with their physics setup) every time the player walks back.
+ */
+public class EntityPools {
+
+    /**
+     * The maximal number of free entities kept in each pool.
+     */
+    private static final int MAX_POOL_SIZE = 8192;
+
+    /**
+     * The pool of ground and trunk blocks.
+     */
+    private final ObjectPool<Block> blocks = new ObjectPool<>(MAX_POOL_SIZE);
+
+    /**
+     * The pool of leaves.
+     */
+    private final ObjectPool<TreeLeaves> leaves = new ObjectPool<>(MAX_POOL_SIZE);
+
+    /**
+     * The pool of fruits.
+     */
+    private final ObjectPool<TreeFruits> fruits = new ObjectPool<>(MAX_POOL_SIZE);
+
+    /**
+     * Returns a block, reused from the pool if there is a free one.
+     *
+     * @param topLeftCorner The top-left corner of the block.
+     * @param dimensions    The dimensions of the block.
+     * @param renderable    The renderable of the block.
+     * @param tag           The tag of the block.
+     * @return The block.
+     */
+    public Block block(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, String tag){
+        Block block = this.blocks.poll();
+        if (block == null){
+            block = new Block(topLeftCorner, renderable);
+            block.setDimensions(dimensions);
+            block.setTag(tag);
+        }
+        else {
+            block.reuse(topLeftCorner, dimensions, renderable, tag);
+        }
+        return block;
+    }
+
+    /**
+     * Returns a leaf, reused from the pool if there is a free one.
+     *
+     * @param topLeftCorner The top-left corner of the leaf.
+     * @param dimensions    The dimensions of the leaf.
+     * @param renderable    The renderable of the leaf.
+     * @return The leaf.
+     */
+    public TreeLeaves leaf(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable){
+        TreeLeaves leaf = this.leaves.poll();
+        if (leaf == null){
+            return new TreeLeaves(topLeftCorner, dimensions, renderable);
+        }
+        leaf.reuse(topLeftCorner, dimensions, renderable);
+        return leaf;
+    }
+
+    /**
+     * Returns a fruit, reused from the pool if there is a free one.
+     *
+     * @param topLeftCorner The top-left corner of the fruit.
+     * @param dimensions    The dimensions of the fruit.
+     * @param renderable    The renderable of the fruit.
+     * @param events        The world events, the fruit publishes to it when it is eaten.
+     * @param timers        The timer wheel that makes the fruit grow back after it is eaten.
+     * @return The fruit.
+     */
+    public TreeFruits fruit(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                            WorldEvents events, TimerWheel timers){
+        TreeFruits fruit = this.fruits.poll();
+        if (fruit == null){
+            return new TreeFruits(topLeftCorner, dimensions, renderable, events, timers);
+        }
+        fruit.reuse(topLeftCorner, dimensions, renderable, events, timers);
+        return fruit;
+    }
+
+    /**
+     * Takes back an entity that was removed from the game. Objects that are not pooled are ignored.
+     *
+     * @param object The removed game object.
+     */
+    public void release(GameObject object){
+        if (object instanceof Block){
+            this.blocks.release((Block) object);
+        }
+        else if (object instanceof TreeLeaves){
+            this.leaves.release((TreeLeaves) object);
+        }
+        else if (object instanceof TreeFruits){
+            // the tick the fruit grows back at is in the save, its chunk goes on with it when it loads.
+            ((TreeFruits) object).stopRegrowth();
+            this.fruits.release((TreeFruits) object);
+        }
+    }
+
+    /**
+     * Returns the hit and miss counters of the pools.
+     *
+     * @return A line with the counters of each pool.
+     */
+    public String report(){
+        return "blocks " + this.blocks.getHits() + "/" + this.blocks.getMisses() +
+                ", leaves " + this.leaves.getHits() + "/" + this.leaves.getMisses() +
+                ", fruits " + this.fruits.getHits() + "/" + this.fruits.getMisses() + " (hits/misses)";
+    }
+}
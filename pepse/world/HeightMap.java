@@ -0,0 +1,200 @@
+package pepse.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the ground heights of the terrain columns.
+ * Heights are computed once per column and kept in primitive arrays, grouped in fixed-size chunks of
+ * columns. Only a bounded number of chunks is kept, the least recently used ones (the ones the camera
+ * left behind) are evicted first.
+ * The height map can be read from several threads, the heights of a missing chunk are computed
+ * outside the lock so a generating thread doesn't block the others.
+ */
+public class HeightMap {
+
+    /**
+     * Computes the ground height of a single x-coordinate, or of a run of columns.
+     */
+    public interface HeightFunction {
+        /**
+         * Returns the ground height at the specified x-coordinate.
+         *
+         * @param x The x-coordinate.
+         * @return The ground height.
+         */
+        float heightAt(float x);
+
+        /**
+         * Fills an array with the ground heights of consecutive columns, out[i] is the height at
+         * firstX + i * Block.SIZE. Functions that can compute a run at once should override it.
+         *
+         * @param firstX The x-coordinate of the first column.
+         * @param out    The array to fill.
+         * @param count  The number of columns.
+         */
+        default void heightsAt(float firstX, float[] out, int count){
+            for (int i = 0; i < count; i++) {
+                out[i] = heightAt(firstX + (float) i * Block.SIZE);
+            }
+        }
+    }
+
+    /**
+     * The number of columns in a single cached chunk.
+     */
+    private static final int CHUNK_COLUMNS = 64;
+
+    /**
+     * The maximal number of chunks kept in the cache.
+     */
+    private static final int MAX_CHUNKS = 32;
+
+    /**
+     * The function that computes heights that are not cached yet.
+     */
+    private final HeightFunction heightFunction;
+
+    /**
+     * The cached chunks by their index, in access order.
+     */
+    private final LinkedHashMap<Integer, HeightChunk> chunks =
+            new LinkedHashMap<>(MAX_CHUNKS * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, HeightChunk> eldest) {
+                    return size() > MAX_CHUNKS;
+                }
+            };
+
+    /**
+     * The chunk of the last lookup, most lookups are for the same chunk as the one before.
+     */
+    private HeightChunk lastChunk = null;
+
+    /**
+     * The heights and block-aligned tops of CHUNK_COLUMNS consecutive columns.
+     */
+    private static class HeightChunk {
+
+        /**
+         * The index of the chunk.
+         */
+        private final int index;
+
+        /**
+         * The exact ground height of each column.
+         */
+        private final float[] heights = new float[CHUNK_COLUMNS];
+
+        /**
+         * The ground height of each column rounded down to the block grid.
+         */
+        private final int[] tops = new int[CHUNK_COLUMNS];
+
+        /**
+         * Constructs a new chunk and computes the heights of all its columns.
+         *
+         * @param index          The index of the chunk.
+         * @param heightFunction The function that computes the heights.
+         */
+        private HeightChunk(int index, HeightFunction heightFunction){
+            this.index = index;
+            heightFunction.heightsAt((float) index * CHUNK_COLUMNS * Block.SIZE, this.heights, CHUNK_COLUMNS);
+            for (int i = 0; i < CHUNK_COLUMNS; i++) {
+                this.tops[i] = (int) Math.floor(this.heights[i] / Block.SIZE) * Block.SIZE;
+            }
+        }
+    }
+
+    /**
+     * Constructs a new empty height map.
+     *
+     * @param heightFunction The function that computes the height of a column.
+     */
+    public HeightMap(HeightFunction heightFunction){
+        this.heightFunction = heightFunction;
+    }
+
+    /**
+     * Returns the ground height of a column.
+     *
+     * @param column The column, the x-coordinate divided by the block size.
+     * @return The ground height of the column.
+     */
+    public float heightAt(int column){
+        return chunkOf(column).heights[Math.floorMod(column, CHUNK_COLUMNS)];
+    }
+
+    /**
+     * Fills the array with the ground heights of the columns between minX and maxX (both included).
+     * Both x-coordinates should divide by the block size.
+     *
+     * @param minX The x-coordinate of the first column.
+     * @param maxX The x-coordinate of the last column.
+     * @param out  The array to fill, its length should be at least the number of columns.
+     */
+    public void heightsInRange(int minX, int maxX, float[] out){
+        int first = Math.floorDiv(minX, Block.SIZE);
+        int last = Math.floorDiv(maxX, Block.SIZE);
+        int column = first;
+        while (column <= last) {
+            HeightChunk chunk = chunkOf(column);
+            int offset = Math.floorMod(column, CHUNK_COLUMNS);
+            int count = Math.min(CHUNK_COLUMNS - offset, last - column + 1);
+            System.arraycopy(chunk.heights, offset, out, column - first, count);
+            column += count;
+        }
+    }
+
+    /**
+     * Fills the array with the ground heights, rounded down to the block grid, of the columns between
+     * minX and maxX (both included). Both x-coordinates should divide by the block size.
+     *
+     * @param minX The x-coordinate of the first column.
+     * @param maxX The x-coordinate of the last column.
+     * @param out  The array to fill, its length should be at least the number of columns.
+     */
+    public void blockTopsInRange(int minX, int maxX, int[] out){
+        int first = Math.floorDiv(minX, Block.SIZE);
+        int last = Math.floorDiv(maxX, Block.SIZE);
+        int column = first;
+        while (column <= last) {
+            HeightChunk chunk = chunkOf(column);
+            int offset = Math.floorMod(column, CHUNK_COLUMNS);
+            int count = Math.min(CHUNK_COLUMNS - offset, last - column + 1);
+            System.arraycopy(chunk.tops, offset, out, column - first, count);
+            column += count;
+        }
+    }
+
+    /**
+     * Returns the cached chunk that contains the column, computing it if needed.
+     *
+     * @param column The column.
+     * @return The chunk of the column.
+     */
+    private HeightChunk chunkOf(int column){
+        int index = Math.floorDiv(column, CHUNK_COLUMNS);
+        synchronized (this) {
+            if (this.lastChunk != null && this.lastChunk.index == index){
+                return this.lastChunk;
+            }
+            HeightChunk chunk = this.chunks.get(index);
+            if (chunk != null){
+                this.lastChunk = chunk;
+                return chunk;
+            }
+        }
+        HeightChunk computed = new HeightChunk(index, this.heightFunction);
+        synchronized (this) {
+            // another thread may have computed the same chunk meanwhile, keep the first one.
+            HeightChunk chunk = this.chunks.get(index);
+            if (chunk == null){
+                chunk = computed;
+                this.chunks.put(index, chunk);
+            }
+            this.lastChunk = chunk;
+            return chunk;
+        }
+    }
+}
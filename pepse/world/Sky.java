@@ -15,9 +15,9 @@ import java.awt.*;
 public class Sky {
 
     /**
-     * The basic color of the sky.
+     * The basic color of the sky, the day cycle shades it at dawn, dusk and night.
      */
-    private static final Color BASIC_SKY_COLOR = Color.decode("#80C6E5");
+    public static final Color BASIC_SKY_COLOR = Color.decode("#80C6E5");
 
     /**
      * default constructor.
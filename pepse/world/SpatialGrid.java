@@ -0,0 +1,383 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A uniform grid of Block.SIZE cells over the world, it finds the objects near a box without testing
+ * every object.
+ * Every object is listed in each cell its box covers when it is added. The cells are kept in an open
+ * addressing hash table keyed by the cell coordinates, and the cell lists are linked through index
+ * arrays, so a query only reads arrays and never allocates. The cost of a query depends on the size
+ * of the box and not on how many objects are indexed.
+ */
+public class SpatialGrid {
+
+    /**
+     * The initial number of slots of the cell table, a power of two.
+     */
+    private static final int INITIAL_CELLS = 1024;
+
+    /**
+     * The initial number of entries, an entry is an object listed in one cell.
+     */
+    private static final int INITIAL_ENTRIES = 2048;
+
+    /**
+     * The mark of an empty slot or the end of a list.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The keys of the cell table, the packed cell coordinates.
+     */
+    private long[] cellKeys = new long[INITIAL_CELLS];
+
+    /**
+     * The first entry of every cell, or NONE if the slot is empty.
+     */
+    private int[] cellHeads = new int[INITIAL_CELLS];
+
+    /**
+     * The number of used slots of the cell table.
+     */
+    private int cellCount;
+
+    /**
+     * The object of every entry.
+     */
+    private GameObject[] entryObjects = new GameObject[INITIAL_ENTRIES];
+
+    /**
+     * The next entry in the same cell, or the next free entry for free entries.
+     */
+    private int[] entryNext = new int[INITIAL_ENTRIES];
+
+    /**
+     * The first free entry, or NONE.
+     */
+    private int freeEntry = NONE;
+
+    /**
+     * The number of entries that were ever used, the entries above it are free too.
+     */
+    private int usedEntries;
+
+    /**
+     * The cells every indexed object was added to, as {minX, minY, maxX, maxY} cell coordinates.
+     * Objects can change size after they are added (an eaten fruit shrinks), so they are removed from
+     * the cells they were added to and not from the cells of their current box.
+     */
+    private final Map<GameObject, int[]> addedCells = new IdentityHashMap<>();
+
+    /**
+     * Constructs a new empty grid.
+     */
+    public SpatialGrid(){
+        Arrays.fill(this.cellHeads, NONE);
+    }
+
+    /**
+     * Adds an object to every cell its box covers. Adding an object that is indexed does nothing.
+     *
+     * @param object The object.
+     */
+    public void add(GameObject object){
+        add(object, object.getDimensions());
+    }
+
+    /**
+     * Adds an object to every cell of a box at its top-left corner, for objects that change their size
+     * and should be found at the largest one. Adding an object that is indexed does nothing.
+     *
+     * @param object     The object.
+     * @param dimensions The dimensions of the box.
+     */
+    public void add(GameObject object, Vector2 dimensions){
+        if (this.addedCells.containsKey(object)){
+            return;
+        }
+        Vector2 topLeft = object.getTopLeftCorner();
+        int[] cells = {cellOf(topLeft.x()), cellOf(topLeft.y()),
+                cellOf(topLeft.x() + dimensions.x() - 1), cellOf(topLeft.y() + dimensions.y() - 1)};
+        this.addedCells.put(object, cells);
+        for (int cx = cells[0]; cx <= cells[2]; cx++) {
+            for (int cy = cells[1]; cy <= cells[3]; cy++) {
+                int slot = findOrAddSlot(key(cx, cy));
+                int entry = newEntry(object);
+                this.entryNext[entry] = this.cellHeads[slot];
+                this.cellHeads[slot] = entry;
+            }
+        }
+    }
+
+    /**
+     * Removes an object from all the cells it was added to. Removing an object that isn't indexed
+     * does nothing.
+     *
+     * @param object The object.
+     */
+    public void remove(GameObject object){
+        int[] cells = this.addedCells.remove(object);
+        if (cells == null){
+            return;
+        }
+        for (int cx = cells[0]; cx <= cells[2]; cx++) {
+            for (int cy = cells[1]; cy <= cells[3]; cy++) {
+                int slot = findSlot(key(cx, cy));
+                if (slot == NONE){
+                    continue;
+                }
+                int previous = NONE;
+                int entry = this.cellHeads[slot];
+                while (entry != NONE && this.entryObjects[entry] != object) {
+                    previous = entry;
+                    entry = this.entryNext[entry];
+                }
+                if (entry == NONE){
+                    continue;
+                }
+                if (previous == NONE){
+                    this.cellHeads[slot] = this.entryNext[entry];
+                } else {
+                    this.entryNext[previous] = this.entryNext[entry];
+                }
+                freeEntry(entry);
+                if (this.cellHeads[slot] == NONE){
+                    removeSlot(slot);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the objects whose current box overlaps a box.
+     * Every object is written once, and when there are more objects than the output can hold the rest
+     * are skipped.
+     *
+     * @param minX The left edge of the box.
+     * @param minY The top edge of the box.
+     * @param maxX The right edge of the box.
+     * @param maxY The bottom edge of the box.
+     * @param out  The array the objects are written to.
+     * @return The number of objects written.
+     */
+    public int query(float minX, float minY, float maxX, float maxY, GameObject[] out){
+        int found = 0;
+        for (int cx = cellOf(minX); cx <= cellOf(maxX); cx++) {
+            for (int cy = cellOf(minY); cy <= cellOf(maxY); cy++) {
+                int slot = findSlot(key(cx, cy));
+                if (slot == NONE){
+                    continue;
+                }
+                for (int entry = this.cellHeads[slot]; entry != NONE; entry = this.entryNext[entry]) {
+                    GameObject object = this.entryObjects[entry];
+                    if (found < out.length && overlaps(object, minX, minY, maxX, maxY) &&
+                            !contains(out, found, object)){
+                        out[found++] = object;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the number of indexed objects.
+     *
+     * @return The number of indexed objects.
+     */
+    public int size(){
+        return this.addedCells.size();
+    }
+
+    /**
+     * Checks if the current box of an object overlaps a box.
+     *
+     * @param object The object.
+     * @param minX   The left edge of the box.
+     * @param minY   The top edge of the box.
+     * @param maxX   The right edge of the box.
+     * @param maxY   The bottom edge of the box.
+     * @return true if the boxes overlap.
+     */
+    private static boolean overlaps(GameObject object, float minX, float minY, float maxX, float maxY){
+        Vector2 topLeft = object.getTopLeftCorner();
+        Vector2 dimensions = object.getDimensions();
+        return topLeft.x() < maxX && topLeft.x() + dimensions.x() > minX &&
+                topLeft.y() < maxY && topLeft.y() + dimensions.y() > minY;
+    }
+
+    /**
+     * Checks if an object is among the first objects of an array.
+     *
+     * @param objects The array.
+     * @param count   The number of objects to check.
+     * @param object  The object.
+     * @return true if the object was found.
+     */
+    private static boolean contains(GameObject[] objects, int count, GameObject object){
+        for (int i = 0; i < count; i++) {
+            if (objects[i] == object){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the cell coordinate of a world coordinate.
+     *
+     * @param coordinate The world coordinate.
+     * @return The cell coordinate.
+     */
+    private static int cellOf(float coordinate){
+        return (int) Math.floor(coordinate / Block.SIZE);
+    }
+
+    /**
+     * Packs the coordinates of a cell into a key.
+     *
+     * @param cx The x cell coordinate.
+     * @param cy The y cell coordinate.
+     * @return The key of the cell.
+     */
+    private static long key(int cx, int cy){
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the first slot to look for a key at.
+     *
+     * @param key  The key.
+     * @param mask The number of slots minus one.
+     * @return The slot.
+     */
+    private static int home(long key, int mask){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 40) & mask;
+    }
+
+    /**
+     * Finds the slot of a cell.
+     *
+     * @param key The key of the cell.
+     * @return The slot, or NONE if the cell is empty.
+     */
+    private int findSlot(long key){
+        int mask = this.cellKeys.length - 1;
+        for (int slot = home(key, mask); this.cellHeads[slot] != NONE; slot = (slot + 1) & mask) {
+            if (this.cellKeys[slot] == key){
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Finds the slot of a cell, and takes a slot for it if it is empty.
+     *
+     * @param key The key of the cell.
+     * @return The slot.
+     */
+    private int findOrAddSlot(long key){
+        int slot = findSlot(key);
+        if (slot != NONE){
+            return slot;
+        }
+        if ((this.cellCount + 1) * 2 > this.cellKeys.length){
+            growCells();
+        }
+        int mask = this.cellKeys.length - 1;
+        slot = home(key, mask);
+        while (this.cellHeads[slot] != NONE) {
+            slot = (slot + 1) & mask;
+        }
+        this.cellKeys[slot] = key;
+        this.cellCount++;
+        return slot;
+    }
+
+    /**
+     * Frees a slot of the cell table. The cells after it in the same run are moved back so every cell
+     * can still be found from its home slot.
+     *
+     * @param slot The slot, its cell list is empty.
+     */
+    private void removeSlot(int slot){
+        int mask = this.cellKeys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (this.cellHeads[next] != NONE) {
+            int home = home(this.cellKeys[next], mask);
+            // the cell at next can fill the hole if the hole is between its home and next.
+            if (((next - home) & mask) >= ((next - hole) & mask)){
+                this.cellKeys[hole] = this.cellKeys[next];
+                this.cellHeads[hole] = this.cellHeads[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.cellHeads[hole] = NONE;
+        this.cellCount--;
+    }
+
+    /**
+     * Doubles the cell table and puts all the cells back in it.
+     */
+    private void growCells(){
+        long[] keys = this.cellKeys;
+        int[] heads = this.cellHeads;
+        this.cellKeys = new long[keys.length * 2];
+        this.cellHeads = new int[heads.length * 2];
+        Arrays.fill(this.cellHeads, NONE);
+        int mask = this.cellKeys.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (heads[i] != NONE){
+                int slot = home(keys[i], mask);
+                while (this.cellHeads[slot] != NONE) {
+                    slot = (slot + 1) & mask;
+                }
+                this.cellKeys[slot] = keys[i];
+                this.cellHeads[slot] = heads[i];
+            }
+        }
+    }
+
+    /**
+     * Takes a free entry for an object.
+     *
+     * @param object The object.
+     * @return The entry.
+     */
+    private int newEntry(GameObject object){
+        int entry;
+        if (this.freeEntry != NONE){
+            entry = this.freeEntry;
+            this.freeEntry = this.entryNext[entry];
+        } else {
+            if (this.usedEntries == this.entryObjects.length){
+                this.entryObjects = Arrays.copyOf(this.entryObjects, this.usedEntries * 2);
+                this.entryNext = Arrays.copyOf(this.entryNext, this.usedEntries * 2);
+            }
+            entry = this.usedEntries++;
+        }
+        this.entryObjects[entry] = object;
+        return entry;
+    }
+
+    /**
+     * Returns an entry to the free list.
+     *
+     * @param entry The entry.
+     */
+    private void freeEntry(int entry){
+        this.entryObjects[entry] = null;
+        this.entryNext[entry] = this.freeEntry;
+        this.freeEntry = entry;
+    }
+}
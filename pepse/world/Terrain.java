@@ -4,10 +4,10 @@ import danogl.GameObject;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
 import danogl.components.GameObjectPhysics;
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
-import pepse.util.NoiseGenerator;
+import pepse.util.BatchNoise;
+import pepse.util.RenderablePalette;
 
 import java.awt.*;
 import java.util.ArrayList;
@@ -34,9 +34,51 @@ public class Terrain {
     private static final int TERRAIN_DEPTH = 20;
 
     /**
-     * The noise generator used for generating terrain noise.
+     * The tag of the ground blocks that take part in collisions.
      */
-    private final NoiseGenerator noiseGenerator;
+    public static final String GROUND_TAG = "ground";
+
+    /**
+     * The tag of the merged ground bodies that are buried under the surface blocks.
+     */
+    public static final String UNDERGROUND_TAG = "underground";
+
+    /**
+     * The layer of the buried ground bodies. It is drawn right after the static objects so the ground
+     * still covers the sun, but nothing collides with it.
+     */
+    public static final int UNDERGROUND_LAYER = Layer.STATIC_OBJECTS + 1;
+
+    /**
+     * Whether the ground below the surface is merged into a few non-colliding bodies, or built from
+     * separate blocks all the way down.
+     */
+    private boolean mergedGround = true;
+
+    /**
+     * The amplitude of the ground noise.
+     */
+    private static final float NOISE_AMPLITUDE = Block.SIZE * 7;
+
+    /**
+     * The noise used for generating the terrain heights.
+     */
+    private final BatchNoise noise;
+
+    /**
+     * The cache of the column heights, shared by everything that asks this terrain for heights.
+     */
+    private final HeightMap heightMap;
+
+    /**
+     * The pools the ground blocks are taken from.
+     */
+    private final EntityPools pools;
+
+    /**
+     * The dimensions of a single ground block.
+     */
+    private static final Vector2 BLOCK_DIMENSIONS = Vector2.ONES.mult(Block.SIZE);
 
     /**
      * Constructs a new Terrain object with the specified window dimensions and seed for noise generation.
@@ -45,9 +87,32 @@ public class Terrain {
      * @param seed             The seed for noise generation.
      */
     public Terrain(Vector2 windowDimensions, int seed){
+        this(windowDimensions, seed, new EntityPools());
+    }
+
+    /**
+     * Constructs a new Terrain object with the specified window dimensions and seed for noise generation,
+     * that takes its blocks from the given pools.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param seed             The seed for noise generation.
+     * @param pools            The pools the ground blocks are taken from.
+     */
+    public Terrain(Vector2 windowDimensions, int seed, EntityPools pools){
         this.groundHeightAtX0 = windowDimensions.y() * ((float) 2 / 3);
-        this.noiseGenerator = new NoiseGenerator(seed, (int) windowDimensions.y() / 3);
+        this.noise = new BatchNoise(seed, (int) windowDimensions.y() / 3, NOISE_AMPLITUDE);
+        this.heightMap = new HeightMap(new HeightMap.HeightFunction() {
+            @Override
+            public float heightAt(float x) {
+                return noiseHeightAt(x);
+            }
 
+            @Override
+            public void heightsAt(float firstX, float[] out, int count) {
+                noiseHeightsAt(firstX, out, count);
+            }
+        });
+        this.pools = pools;
     }
 
     /**
@@ -57,10 +122,61 @@ public class Terrain {
      * @return The height of the ground at the specified x-coordinate.
      */
     public float groundHeightAt(float x){
+        // the heights of the columns are cached, any other x is calculated on its own.
+        if (x == (int) x && (int) x % Block.SIZE == 0){
+            return this.heightMap.heightAt((int) x / Block.SIZE);
+        }
+        return noiseHeightAt(x);
+    }
+
+    /**
+     * Fills the array with the heights of the ground columns between minX and maxX (both included),
+     * reading them from the height cache instead of calculating each one.
+     *
+     * @param minX The x-coordinate of the first column, should divide by the block size.
+     * @param maxX The x-coordinate of the last column, should divide by the block size.
+     * @param out  The array to fill, its length should be at least the number of columns.
+     */
+    public void heightsInRange(int minX, int maxX, float[] out){
+        this.heightMap.heightsInRange(minX, maxX, out);
+    }
+
+    /**
+     * Calculates the height of the ground at the specified x-coordinate from the noise.
+     *
+     * @param x The x-coordinate.
+     * @return The height of the ground at the specified x-coordinate.
+     */
+    private float noiseHeightAt(float x){
         // the x is coordinate in the game
         // we have to calculate a special height for the ground for each single x.
-        float noise = (float) this.noiseGenerator.noise(x, Block.SIZE * 7);
-        return this.groundHeightAtX0 + noise;
+        return this.groundHeightAtX0 + this.noise.noise(x);
+    }
+
+    /**
+     * Calculates the heights of a run of ground columns from the noise in one batch.
+     *
+     * @param firstX The x-coordinate of the first column.
+     * @param out    The array to fill, out[i] is the height at firstX + i * Block.SIZE.
+     * @param count  The number of columns.
+     */
+    private void noiseHeightsAt(float firstX, float[] out, int count){
+        this.noise.fill(firstX, Block.SIZE, out, count);
+        for (int i = 0; i < count; i++) {
+            out[i] += this.groundHeightAtX0;
+        }
+    }
+
+    /**
+     * Sets the ground mode.
+     * In merged mode only the surface of each column (and the side of it exposed to a lower neighbour)
+     * is a colliding block, and the material below it is one tall body per run of columns with the
+     * same height. Otherwise every column is built from TERRAIN_DEPTH separate blocks.
+     *
+     * @param mergedGround true for the merged ground mode, false for full-depth columns.
+     */
+    public void setMergedGround(boolean mergedGround){
+        this.mergedGround = mergedGround;
     }
 
     /**
@@ -71,22 +187,100 @@ public class Terrain {
      * @return A list of blocks representing the terrain.
      */
     public List<Block> createInRange(int minX, int maxX){
-        List<Block> blockList = new ArrayList<>();
         int min = getMinRange(minX);
         int max =getMaxRange(maxX);
+        return createFromSurface(min, max, surfaceInRange(min, max));
+    }
+
+    /**
+     * Returns the ground surface of an aligned range: the tops of its columns rounded down to the block
+     * grid, with one more column on each side. This is plain data, it can be computed on any thread
+     * ahead of creating the blocks.
+     *
+     * @param min The first column of the range, divides by the block size.
+     * @param max The last column of the range, divides by the block size.
+     * @return The tops of the columns from min - Block.SIZE to max + Block.SIZE.
+     */
+    public int[] surfaceInRange(int min, int max){
+        int[] tops = new int[(max - min) / Block.SIZE + 3];
+        this.heightMap.blockTopsInRange(min - Block.SIZE, max + Block.SIZE, tops);
+        return tops;
+    }
+
+    /**
+     * Creates the blocks of an aligned range from its ground surface.
+     *
+     * @param min     The first column of the range, divides by the block size.
+     * @param max     The last column of the range, divides by the block size.
+     * @param surface The surface of the range, as returned by surfaceInRange.
+     * @return A list of blocks representing the terrain.
+     */
+    public List<Block> createFromSurface(int min, int max, int[] surface){
+        if (this.mergedGround){
+            return createMergedInRange(min, max, surface);
+        }
+        List<Block> blockList = new ArrayList<>();
         for (int i = min; i <= max; i+=Block.SIZE) {
-            int yVal = (int) Math.floor(groundHeightAt(i) / Block.SIZE) * Block.SIZE;
+            int yVal = surface[(i - min) / Block.SIZE + 1];
             for (int j = 0; j < TERRAIN_DEPTH; j++) {
-                RectangleRenderable rend =new RectangleRenderable
-                        (ColorSupplier.approximateColor(BASE_GROUND_COLOR));
-                Block block = new Block(new Vector2(i, yVal + j * Block.SIZE  ), rend);
-                block.setTag("ground");
+                Renderable rend = RenderablePalette.approximateRectangle(BASE_GROUND_COLOR,
+                        i / Block.SIZE * TERRAIN_DEPTH + j);
+                Block block = this.pools.block(new Vector2(i, yVal + j * Block.SIZE  ), BLOCK_DIMENSIONS,
+                        rend, GROUND_TAG);
                 blockList.add(block);
             }
         }
         return blockList;
     }
 
+    /**
+     * Creates the terrain of an aligned range in the merged ground mode.
+     * Each column gets one colliding block that reaches from its surface down to the surface of its
+     * lower neighbour, so the avatar can't walk into a cliff. The buried material under it is merged
+     * with the neighbouring columns that have the same surface and the same colliding depth. Every block
+     * of a merged body is drawn in the shade it has as a separate block, so merging doesn't change how
+     * the ground looks.
+     *
+     * @param min The first column of the range, divides by the block size.
+     * @param max The last column of the range, divides by the block size.
+     * @param tops The tops of the columns in the range, with one more column on each side.
+     * @return A list of blocks representing the terrain.
+     */
+    private List<Block> createMergedInRange(int min, int max, int[] tops){
+        List<Block> blockList = new ArrayList<>();
+        int columns = (max - min) / Block.SIZE + 1;
+        int[] depths = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            int lowerNeighbour = Math.max(tops[c], tops[c + 2]);
+            int depth = Math.max(1, (lowerNeighbour - tops[c + 1]) / Block.SIZE);
+            depths[c] = Math.min(depth, TERRAIN_DEPTH);
+            Block surface = this.pools.block(new Vector2(min + c * Block.SIZE, tops[c + 1]),
+                    new Vector2(Block.SIZE, depths[c] * Block.SIZE),
+                    RenderablePalette.approximateGrid(BASE_GROUND_COLOR, min / Block.SIZE + c, 0, 1,
+                            depths[c], TERRAIN_DEPTH),
+                    GROUND_TAG);
+            blockList.add(surface);
+        }
+        int runStart = 0;
+        for (int c = 1; c <= columns; c++) {
+            if (c < columns && tops[c + 1] == tops[runStart + 1] && depths[c] == depths[runStart]){
+                continue;
+            }
+            int buriedDepth = TERRAIN_DEPTH - depths[runStart];
+            if (buriedDepth > 0){
+                Block buried = this.pools.block(new Vector2(min + runStart * Block.SIZE,
+                        tops[runStart + 1] + depths[runStart] * Block.SIZE),
+                        new Vector2((c - runStart) * Block.SIZE, buriedDepth * Block.SIZE),
+                        RenderablePalette.approximateGrid(BASE_GROUND_COLOR, min / Block.SIZE + runStart,
+                                depths[runStart], c - runStart, buriedDepth, TERRAIN_DEPTH),
+                        UNDERGROUND_TAG);
+                blockList.add(buried);
+            }
+            runStart = c;
+        }
+        return blockList;
+    }
+
     /**
      * this function checks if the current min number divides the block size
      * if yes it returns the same number, else it finds the closest number to it that
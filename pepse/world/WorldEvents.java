@@ -0,0 +1,139 @@
+package pepse.world;
+
+import pepse.util.FrameProfiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small typed event dispatcher for things that happen in the world.
+ * Events are published only when a state changes (the avatar starts a jump, a fruit is eaten, the
+ * energy changes), so objects that react to them don't have to poll the avatar on every frame.
+ * Listeners are registered through groups, all the listeners of a group (usually all the objects of a
+ * world chunk) are dropped together.
+ */
+public class WorldEvents {
+
+    /**
+     * The types of the world events.
+     */
+    public enum Type {
+        /**
+         * The avatar has just started a jump, the value is not used.
+         */
+        JUMP_STARTED,
+        /**
+         * The avatar has eaten a fruit, the value is the energy the fruit gives.
+         */
+        FRUIT_EATEN,
+        /**
+         * The energy of the avatar has changed, the value is the new energy rounded to a whole number.
+         */
+        ENERGY_CHANGED
+    }
+
+    /**
+     * A listener of world events.
+     */
+    public interface Listener {
+        /**
+         * Called when an event the listener is subscribed to is published.
+         *
+         * @param value The value of the event.
+         */
+        void onEvent(float value);
+    }
+
+    /**
+     * A group of listeners that are registered and dropped together.
+     */
+    public class Group {
+
+        /**
+         * The listeners of the group, one list for each event type.
+         */
+        private final List<List<Listener>> listeners = new ArrayList<>();
+
+        /**
+         * Constructs a new empty group.
+         */
+        private Group(){
+            for (int i = 0; i < Type.values().length; i++) {
+                this.listeners.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Subscribes a listener to an event type.
+         *
+         * @param type     The event type.
+         * @param listener The listener.
+         */
+        public void subscribe(Type type, Listener listener){
+            this.listeners.get(type.ordinal()).add(listener);
+        }
+
+        /**
+         * Drops all the listeners of the group, they won't get any more events.
+         */
+        public void dispose(){
+            groups.remove(this);
+        }
+    }
+
+    /**
+     * The live listener groups.
+     */
+    private final List<Group> groups = new ArrayList<>();
+
+    /**
+     * Measures the time the listeners of every event take.
+     */
+    private final FrameProfiler profiler;
+
+    /**
+     * Constructs world events whose listeners are measured by a profiler.
+     *
+     * @param profiler The frame profiler.
+     */
+    public WorldEvents(FrameProfiler profiler){
+        this.profiler = profiler;
+    }
+
+    /**
+     * Constructs world events whose listeners aren't measured.
+     */
+    public WorldEvents(){
+        this(new FrameProfiler());
+        this.profiler.setEnabled(false);
+    }
+
+    /**
+     * Creates a new listener group.
+     *
+     * @return The new group.
+     */
+    public Group newGroup(){
+        Group group = new Group();
+        this.groups.add(group);
+        return group;
+    }
+
+    /**
+     * Publishes an event to all the listeners subscribed to its type.
+     *
+     * @param type  The event type.
+     * @param value The value of the event.
+     */
+    public void publish(Type type, float value){
+        long start = this.profiler.start();
+        for (int i = 0; i < this.groups.size(); i++) {
+            List<Listener> listeners = this.groups.get(i).listeners.get(type.ordinal());
+            for (int j = 0; j < listeners.size(); j++) {
+                listeners.get(j).onEvent(value);
+            }
+        }
+        this.profiler.stop(type == Type.JUMP_STARTED ? FrameProfiler.JUMP_EVENT : FrameProfiler.FRUIT_EVENT,
+                start);
+    }
+}
@@ -0,0 +1,134 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import pepse.world.AvatarCollisions;
+import pepse.world.SpatialGrid;
+import pepse.world.trees.TreeFruits;
+import pepse.world.trees.TreeLeaves;
+import pepse.world.trees.Wind;
+
+/**
+ * Puts the loaded chunks that are away from the camera to sleep.
+ * The objects of a sleeping chunk are taken out of the game, the wind and the spatial grid, so the
+ * engine doesn't update, transition or collide them and the cost of a frame depends on what is around
+ * the camera and not on how many chunks are loaded. When a chunk wakes up its objects go back in and
+ * carry on where the game time is: the leaves sway from the wind clock, and the regrowth timers of
+ * eaten fruits ran on the game time while they slept.
+ * Activity is decided per chunk, so a frame only checks the loaded chunks and not their objects.
+ * A chunk goes to sleep only one chunk further than where it wakes up, so walking back and forth on
+ * that edge doesn't take a whole chunk out of the game and put it back on every crossing.
+ */
+public class ActivityManager {
+
+    /**
+     * The game objects collection the awake objects are in.
+     */
+    private final GameObjectCollection gameObjects;
+
+    /**
+     * The wind that moves the awake leaves.
+     */
+    private final Wind wind;
+
+    /**
+     * The grid of the awake objects the avatar collides with.
+     */
+    private final SpatialGrid grid;
+
+    /**
+     * The distance from the camera center that is awake: half the window and the margin.
+     */
+    private final float awakeHalfWidth;
+
+    /**
+     * The distance from the camera center beyond which an awake chunk goes to sleep.
+     */
+    private final float sleepHalfWidth;
+
+    /**
+     * Constructs a new activity manager.
+     *
+     * @param gameObjects The game objects collection.
+     * @param wind        The wind that moves the leaves.
+     * @param grid        The grid of the objects the avatar collides with.
+     * @param windowWidth The width of the game window.
+     * @param margin      The distance outside the window that stays awake.
+     */
+    public ActivityManager(GameObjectCollection gameObjects, Wind wind, SpatialGrid grid,
+                           float windowWidth, float margin){
+        this.gameObjects = gameObjects;
+        this.wind = wind;
+        this.grid = grid;
+        this.awakeHalfWidth = windowWidth / 2 + margin;
+        this.sleepHalfWidth = this.awakeHalfWidth + ChunkManager.CHUNK_WIDTH;
+    }
+
+    /**
+     * Wakes the chunks that came near the camera and puts the ones that went away from it to sleep.
+     *
+     * @param centerX   The x-coordinate of the camera center.
+     * @param chunks    The loaded chunks.
+     */
+    public void update(float centerX, Iterable<Chunk> chunks){
+        for (Chunk chunk : chunks) {
+            if (chunk.isDormant() && isWithin(chunk, centerX, this.awakeHalfWidth)){
+                wake(chunk);
+            } else if (!chunk.isDormant() && !isWithin(chunk, centerX, this.sleepHalfWidth)){
+                sleep(chunk);
+            }
+        }
+    }
+
+    /**
+     * Checks if any part of a chunk is within a distance from the camera center.
+     *
+     * @param chunk     The chunk.
+     * @param centerX   The x-coordinate of the camera center.
+     * @param halfWidth The distance.
+     * @return true if the chunk is within the distance.
+     */
+    private static boolean isWithin(Chunk chunk, float centerX, float halfWidth){
+        float minX = chunk.getIndex() * ChunkManager.CHUNK_WIDTH;
+        return minX < centerX + halfWidth && minX + ChunkManager.CHUNK_WIDTH > centerX - halfWidth;
+    }
+
+    /**
+     * Takes the objects of a chunk out of the game, the wind and the grid.
+     *
+     * @param chunk The chunk.
+     */
+    private void sleep(Chunk chunk){
+        for (int i = 0; i < chunk.size(); i++) {
+            GameObject object = chunk.objectAt(i);
+            this.gameObjects.removeGameObject(object, chunk.layerAt(i));
+            if (object instanceof TreeLeaves){
+                this.wind.remove((TreeLeaves) object);
+            } else {
+                this.grid.remove(object);
+            }
+        }
+        chunk.setDormant(true);
+    }
+
+    /**
+     * Puts the objects of a chunk back in the game, the wind and the grid.
+     *
+     * @param chunk The chunk.
+     */
+    private void wake(Chunk chunk){
+        for (int i = 0; i < chunk.size(); i++) {
+            GameObject object = chunk.objectAt(i);
+            this.gameObjects.addGameObject(object, chunk.layerAt(i));
+            if (object instanceof TreeLeaves){
+                this.wind.add((TreeLeaves) object);
+            } else if (object instanceof TreeFruits){
+                // an eaten fruit has no size, it is indexed by the size it grows back to.
+                this.grid.add(object, TreeFruits.SIZE);
+            } else if (AvatarCollisions.collidesWithAvatar(object)){
+                this.grid.add(object);
+            }
+        }
+        chunk.setDormant(false);
+    }
+}
@@ -0,0 +1,126 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+import pepse.world.WorldEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-width vertical slice of the world, holding every game object that was created for it
+ * together with the layer it was added to, so the whole slice can be removed again in one go.
+ */
+public class Chunk {
+
+    /**
+     * The index of the chunk, chunk i covers the x-coordinates [i * width, (i + 1) * width).
+     */
+    private final int index;
+
+    /**
+     * The game objects that belong to this chunk.
+     */
+    private final List<GameObject> objects = new ArrayList<>();
+
+    /**
+     * The layer of each game object, in the same order as the objects list.
+     */
+    private final List<Integer> layers = new ArrayList<>();
+
+    /**
+     * The world event listeners of the objects of this chunk.
+     */
+    private final WorldEvents.Group listeners;
+
+    /**
+     * Whether the objects of the chunk are asleep, out of the game.
+     */
+    private boolean dormant = true;
+
+    /**
+     * Constructs a new empty chunk.
+     *
+     * @param index     The index of the chunk.
+     * @param listeners The listener group for the objects of this chunk.
+     */
+    public Chunk(int index, WorldEvents.Group listeners){
+        this.index = index;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Returns the world event listeners of the objects of this chunk.
+     *
+     * @return The listener group of this chunk.
+     */
+    public WorldEvents.Group getListeners(){
+        return this.listeners;
+    }
+
+    /**
+     * Returns the index of the chunk.
+     *
+     * @return The index of the chunk.
+     */
+    public int getIndex(){
+        return this.index;
+    }
+
+    /**
+     * Checks if the objects of the chunk are asleep. A new chunk is asleep until it is woken.
+     *
+     * @return true if the chunk is asleep.
+     */
+    public boolean isDormant(){
+        return this.dormant;
+    }
+
+    /**
+     * Marks the chunk as asleep or awake.
+     *
+     * @param dormant Whether the chunk is asleep.
+     */
+    void setDormant(boolean dormant){
+        this.dormant = dormant;
+    }
+
+    /**
+     * Registers a game object as part of this chunk.
+     *
+     * @param object The game object.
+     * @param layer  The layer the game object is added to.
+     */
+    public void add(GameObject object, int layer){
+        this.objects.add(object);
+        this.layers.add(layer);
+    }
+
+    /**
+     * Returns the number of game objects in this chunk.
+     *
+     * @return The number of game objects in this chunk.
+     */
+    public int size(){
+        return this.objects.size();
+    }
+
+    /**
+     * Returns the game object at the given position.
+     *
+     * @param i The position of the game object in the chunk.
+     * @return The game object.
+     */
+    public GameObject objectAt(int i){
+        return this.objects.get(i);
+    }
+
+    /**
+     * Returns the layer of the game object at the given position.
+     *
+     * @param i The position of the game object in the chunk.
+     * @return The layer of the game object.
+     */
+    public int layerAt(int i){
+        return this.layers.get(i);
+    }
+}
@@ -0,0 +1,115 @@
+package pepse.world.chunks;
+
+import pepse.world.trees.Forest;
+
+/**
+ * The generated data of a chunk, before any game object is created for it.
+ * It is made on a worker thread and handed to the game thread, which turns it into game objects.
+ */
+public class ChunkData {
+
+    /**
+     * The index of the chunk.
+     */
+    private final int index;
+
+    /**
+     * The x-coordinate of the first column of the chunk.
+     */
+    private final int minX;
+
+    /**
+     * The x-coordinate of the last column of the chunk.
+     */
+    private final int maxX;
+
+    /**
+     * The ground surface of the chunk, with one more column on each side.
+     */
+    private final int[] surface;
+
+    /**
+     * The trees of the chunk.
+     */
+    private final Forest forest;
+
+    /**
+     * The saved regrowth ticks of the eaten fruits of the chunk, or null if none is eaten.
+     */
+    private final int[] eatenFruits;
+
+    /**
+     * Constructs a new chunk data.
+     *
+     * @param index       The index of the chunk.
+     * @param minX        The x-coordinate of the first column of the chunk.
+     * @param maxX        The x-coordinate of the last column of the chunk.
+     * @param surface     The ground surface of the chunk, with one more column on each side.
+     * @param forest      The trees of the chunk.
+     * @param eatenFruits The saved regrowth ticks of the eaten fruits of the chunk, or null if none is
+     *                    eaten.
+     */
+    public ChunkData(int index, int minX, int maxX, int[] surface, Forest forest, int[] eatenFruits){
+        this.index = index;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.surface = surface;
+        this.forest = forest;
+        this.eatenFruits = eatenFruits;
+    }
+
+    /**
+     * Returns the index of the chunk.
+     *
+     * @return The index of the chunk.
+     */
+    public int getIndex(){
+        return this.index;
+    }
+
+    /**
+     * Returns the x-coordinate of the first column of the chunk.
+     *
+     * @return The x-coordinate of the first column.
+     */
+    public int getMinX(){
+        return this.minX;
+    }
+
+    /**
+     * Returns the x-coordinate of the last column of the chunk.
+     *
+     * @return The x-coordinate of the last column.
+     */
+    public int getMaxX(){
+        return this.maxX;
+    }
+
+    /**
+     * Returns the ground surface of the chunk, with one more column on each side.
+     *
+     * @return The tops of the columns of the chunk.
+     */
+    public int[] getSurface(){
+        return this.surface;
+    }
+
+    /**
+     * Returns the trees of the chunk.
+     *
+     * @return The trees of the chunk.
+     */
+    public Forest getForest(){
+        return this.forest;
+    }
+
+    /**
+     * Returns the ticks the eaten fruits of the chunk grow back at, by the index of their leaf in the
+     * forest, 0 for the ones that aren't eaten.
+     *
+     * @return The ticks, or null if none is eaten.
+     */
+    public int[] getEatenFruits(){
+        return this.eatenFruits;
+    }
+}
@@ -0,0 +1,361 @@
+package pepse.world.chunks;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import pepse.world.Block;
+import pepse.world.EntityPools;
+import pepse.world.SpatialGrid;
+import pepse.world.Terrain;
+import pepse.world.save.WorldSave;
+import pepse.world.WorldEvents;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Forest;
+import pepse.world.trees.TreeFruits;
+import pepse.world.trees.TreeLeaves;
+import pepse.world.trees.Wind;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Streams the world around a moving x-coordinate (the avatar that the camera follows).
+ * The world is split into fixed-width chunks of ground, trunks, leaves and fruits, chunks ahead of the
+ * camera are created and chunks that fall far behind are removed, so the number of live game objects
+ * stays the same no matter how far the player walks.
+ * The data of a chunk (the ground surface and the trees) is generated on a worker pool ahead of the
+ * camera and queued, and the game thread turns the queued chunks into game objects within a small time
+ * budget on every frame, so crossing a chunk border doesn't stall a frame.
+ * A loaded chunk starts asleep, the activity manager adds its objects to the game when it is near the
+ * camera.
+ */
+public class ChunkManager {
+
+    /**
+     * The width of a single chunk in pixels.
+     */
+    public static final int CHUNK_WIDTH = Block.SIZE * 16;
+
+    /**
+     * The number of extra chunks kept on each side of the screen.
+     */
+    private static final int CHUNKS_MARGIN = 1;
+
+    /**
+     * The time the game thread may spend on turning generated chunks into game objects in one frame.
+     */
+    private static final long COMMIT_BUDGET_NANOS = 4_000_000;
+
+    /**
+     * The distance outside the window in which the chunks are awake.
+     */
+    private static final float ACTIVITY_MARGIN = Block.SIZE * 4;
+
+    /**
+     * The terrain used to create the ground of each chunk.
+     */
+    private final Terrain terrain;
+
+    /**
+     * The flora used to create the trees of each chunk.
+     */
+    private final Flora flora;
+
+    /**
+     * All the game objects, chunks are added to and removed from it.
+     */
+    private final GameObjectCollection gameObjects;
+
+    /**
+     * The world events, the trees of each chunk listen to it.
+     */
+    private final WorldEvents events;
+
+    /**
+     * The wind that moves the leaves of the loaded chunks.
+     */
+    private final Wind wind;
+
+    /**
+     * The pools the entities of unloaded chunks are returned to.
+     */
+    private final EntityPools pools;
+
+    /**
+     * The grid of the objects the avatar collides with.
+     */
+    private final SpatialGrid grid;
+
+    /**
+     * The world save, the eaten fruits of every chunk are read from it and saved to it.
+     */
+    private final WorldSave save;
+
+    /**
+     * The number of chunks loaded on each side of the chunk the camera is in.
+     */
+    private final int loadRadius;
+
+    /**
+     * The currently loaded chunks, by their index.
+     */
+    private final Map<Integer, Chunk> loadedChunks = new HashMap<>();
+
+    /**
+     * The chunks that are being generated by the workers.
+     */
+    private final Set<Integer> pendingChunks = new HashSet<>();
+
+    /**
+     * The generated chunks waiting for the game thread to create their game objects.
+     */
+    private final Queue<ChunkData> generatedChunks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The indices of the chunks the workers failed to generate, they can be requested again.
+     */
+    private final Queue<Integer> failedChunks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The worker pool that generates the chunk data.
+     */
+    private final Executor generators = ForkJoinPool.commonPool();
+
+    /**
+     * Wakes the loaded chunks near the camera and puts the others to sleep.
+     */
+    private final ActivityManager activity;
+
+    /**
+     * The chunk the camera was in on the last update, used to skip work while it stays there.
+     */
+    private Integer currentChunk = null;
+
+    /**
+     * Constructs a new chunk manager.
+     *
+     * @param terrain     The terrain used to create the ground.
+     * @param flora       The flora used to create the trees.
+     * @param gameObjects The game object collection chunks are added to.
+     * @param events      The world events the trees listen to.
+     * @param wind        The wind that moves the leaves.
+     * @param pools       The pools the entities of unloaded chunks are returned to.
+     * @param grid        The grid of the objects the avatar collides with.
+     * @param save        The world save of the eaten fruits.
+     * @param windowWidth The width of the game window.
+     */
+    public ChunkManager(Terrain terrain, Flora flora, GameObjectCollection gameObjects,
+                        WorldEvents events, Wind wind, EntityPools pools, SpatialGrid grid,
+                        WorldSave save, float windowWidth){
+        this.terrain = terrain;
+        this.flora = flora;
+        this.gameObjects = gameObjects;
+        this.events = events;
+        this.wind = wind;
+        this.pools = pools;
+        this.grid = grid;
+        this.save = save;
+        this.loadRadius = (int) Math.ceil(windowWidth / 2 / CHUNK_WIDTH) + CHUNKS_MARGIN;
+        this.activity = new ActivityManager(gameObjects, wind, grid, windowWidth, ACTIVITY_MARGIN);
+    }
+
+    /**
+     * Returns the index of the chunk that contains the given x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The index of the chunk.
+     */
+    public static int chunkIndexAt(float x){
+        return (int) Math.floor(x / CHUNK_WIDTH);
+    }
+
+    /**
+     * Loads the chunks around the given x-coordinate and unloads the ones that are too far from it.
+     * When the x-coordinate moves to another chunk, the chunks around it are sent to be generated and
+     * the far ones are unloaded. Every call commits generated chunks within the frame time budget and
+     * updates which chunks are awake.
+     *
+     * @param centerX The x-coordinate the world is centered around.
+     */
+    public void update(float centerX){
+        int center = chunkIndexAt(centerX);
+        if (this.currentChunk == null || this.currentChunk != center){
+            this.currentChunk = center;
+            // a chunk is unloaded only one chunk after it leaves the loaded range, so walking back and
+            // forth on a chunk border does not create and remove the same chunk every frame.
+            List<Integer> farChunks = new ArrayList<>();
+            for (int index : this.loadedChunks.keySet()) {
+                if (isFar(index, center)){
+                    farChunks.add(index);
+                }
+            }
+            for (int index : farChunks) {
+                unloadChunk(this.loadedChunks.remove(index));
+            }
+            // the chunks on the screen can't wait for the workers, they are loaded before the requests
+            // so the workers don't generate them again.
+            for (int i = center - this.loadRadius + CHUNKS_MARGIN;
+                 i <= center + this.loadRadius - CHUNKS_MARGIN; i++) {
+                if (!this.loadedChunks.containsKey(i)){
+                    this.loadedChunks.put(i, loadChunk(generateChunk(i)));
+                }
+            }
+            // one more chunk on each side is generated ahead, it is loaded before it is needed.
+            for (int i = center - this.loadRadius - 1; i <= center + this.loadRadius + 1; i++) {
+                requestChunk(i);
+            }
+        }
+        commitGeneratedChunks(center);
+        this.activity.update(centerX, this.loadedChunks.values());
+    }
+
+    /**
+     * Sends a chunk to be generated by the workers, unless it is loaded or already being generated.
+     * If the generation fails the error is printed and the chunk is queued as failed, so the game
+     * thread stops waiting for it and requests it again later.
+     *
+     * @param index The index of the chunk.
+     */
+    private void requestChunk(int index){
+        if (this.loadedChunks.containsKey(index) || !this.pendingChunks.add(index)){
+            return;
+        }
+        CompletableFuture.runAsync(() -> this.generatedChunks.add(generateChunk(index)), this.generators)
+                .exceptionally(e -> {
+                    System.err.println("can't generate chunk " + index + ": " + e);
+                    this.failedChunks.add(index);
+                    return null;
+                });
+    }
+
+    /**
+     * Creates the game objects of the generated chunks, until the queue is empty or the frame time
+     * budget is used. Chunks that are already loaded or too far by now are dropped, and the chunks
+     * that failed are no longer pending.
+     *
+     * @param center The index of the chunk the camera is in.
+     */
+    private void commitGeneratedChunks(int center){
+        Integer failed;
+        while ((failed = this.failedChunks.poll()) != null) {
+            this.pendingChunks.remove(failed);
+        }
+        long deadline = System.nanoTime() + COMMIT_BUDGET_NANOS;
+        ChunkData data;
+        while (System.nanoTime() < deadline && (data = this.generatedChunks.poll()) != null) {
+            int index = data.getIndex();
+            this.pendingChunks.remove(index);
+            if (!this.loadedChunks.containsKey(index) && !isFar(index, center)){
+                this.loadedChunks.put(index, loadChunk(data));
+            }
+        }
+    }
+
+    /**
+     * Checks if a chunk is too far from the camera to stay loaded.
+     *
+     * @param index  The index of the chunk.
+     * @param center The index of the chunk the camera is in.
+     * @return true if the chunk should be unloaded.
+     */
+    private boolean isFar(int index, int center){
+        return Math.abs(index - center) > this.loadRadius + 1;
+    }
+
+    /**
+     * Generates the data of a chunk. It only reads the terrain heights, the world hash and the saved
+     * fruits, and can run on any thread.
+     *
+     * @param index The index of the chunk.
+     * @return The data of the chunk.
+     */
+    private ChunkData generateChunk(int index){
+        int minX = index * CHUNK_WIDTH;
+        int maxX = minX + CHUNK_WIDTH - Block.SIZE;
+        return new ChunkData(index, minX, maxX, this.terrain.surfaceInRange(minX, maxX),
+                this.flora.planInRange(minX, maxX), this.save.eatenFruits(index));
+    }
+
+    /**
+     * Returns the number of game objects in all the loaded chunks.
+     *
+     * @return The number of live game objects owned by the chunk manager.
+     */
+    public int liveObjects(){
+        int count = 0;
+        for (Chunk chunk : this.loadedChunks.values()) {
+            count += chunk.size();
+        }
+        return count;
+    }
+
+    /**
+     * Creates the ground and the trees of a generated chunk, they are added to the game when the chunk
+     * wakes up. Fruits that were saved as eaten go on regrowing for the rest of their time.
+     *
+     * @param data The generated data of the chunk.
+     * @return The loaded chunk.
+     */
+    private Chunk loadChunk(ChunkData data){
+        Chunk chunk = new Chunk(data.getIndex(), this.events.newGroup());
+        WorldEvents.Group listeners = chunk.getListeners();
+        for (Block block : this.terrain.createFromSurface(data.getMinX(), data.getMaxX(),
+                data.getSurface())) {
+            chunk.add(block, block.getTag().equals(Terrain.UNDERGROUND_TAG) ?
+                    Terrain.UNDERGROUND_LAYER : Layer.STATIC_OBJECTS);
+        }
+        Forest forest = data.getForest();
+        for (int t = 0; t < forest.treeCount(); t++) {
+            Block tr = this.flora.createTrunk(forest, t);
+            chunk.add(tr, Layer.DEFAULT);
+            listeners.subscribe(WorldEvents.Type.JUMP_STARTED, value -> tr.shuffleTrunkColor());
+            for (int l = forest.leavesStart(t); l < forest.leavesEnd(t); l++) {
+                TreeLeaves leaf = this.flora.createLeaf(forest, t, l);
+                chunk.add(leaf, Layer.STATIC_OBJECTS);
+                listeners.subscribe(WorldEvents.Type.JUMP_STARTED, value -> this.wind.startJumpGust(leaf));
+                TreeFruits fruit = this.flora.createFruit(forest, l);
+                if (fruit != null) {
+                    fruit.attachSave(this.save, data.getIndex(), l);
+                    long regrowsAt = WorldSave.regrowsAt(data.getEatenFruits(), l);
+                    if (regrowsAt != 0){
+                        fruit.restoreEaten(regrowsAt);
+                    }
+                    chunk.add(fruit, Layer.DEFAULT);
+                    listeners.subscribe(WorldEvents.Type.JUMP_STARTED, value -> fruit.changeColors());
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Removes all the game objects of a chunk from the game, unless it is asleep and they are already out,
+     * and returns them to the pools.
+     *
+     * @param chunk The chunk to unload.
+     */
+    private void unloadChunk(Chunk chunk){
+        chunk.getListeners().dispose();
+        for (int i = 0; i < chunk.size(); i++) {
+            GameObject object = chunk.objectAt(i);
+            if (!chunk.isDormant()){
+                this.gameObjects.removeGameObject(object, chunk.layerAt(i));
+                if (object instanceof TreeLeaves){
+                    this.wind.remove((TreeLeaves) object);
+                } else {
+                    this.grid.remove(object);
+                }
+            }
+            this.pools.release(object);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.world.Sky;
+
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The clock of the time of day, it moves the sun and its halo, darkens the night and colors the sky.
+ * Everything is read from tables that are calculated once for the whole cycle, so a frame only looks
+ * up the current time in them and doesn't allocate, and the sun, the night and the sky can never get
+ * out of step with each other.
+ */
+public class DayCycle {
+
+    /**
+     * The number of samples of the positions and the night opacity over a cycle.
+     */
+    private static final int TABLE_SIZE = 1024;
+
+    /**
+     * The number of sky colors over a cycle.
+     */
+    private static final int SKY_STEPS = 256;
+
+    /**
+     * The time of day the game starts at, as a part of the cycle: noon, with the sun at the top.
+     */
+    private static final float START_PHASE = 0.5f;
+
+    /**
+     * The opacity of the night at midnight.
+     */
+    private static final float MIDNIGHT_OPACITY = 0.5f;
+
+    /**
+     * The height of the sun above which the sky has its day color, -1 is midnight and 1 is noon.
+     */
+    private static final float DAY_ELEVATION = 0.3f;
+
+    /**
+     * The height of the sun below which the sky has its night color.
+     */
+    private static final float NIGHT_ELEVATION = -0.3f;
+
+    /**
+     * The color of the sky when the sun is down.
+     */
+    private static final Color NIGHT_SKY_COLOR = Color.decode("#1F3050");
+
+    /**
+     * The color of the sky when the sun is on the horizon in the morning.
+     */
+    private static final Color DAWN_SKY_COLOR = Color.decode("#E8A0A8");
+
+    /**
+     * The color of the sky when the sun is on the horizon in the evening.
+     */
+    private static final Color DUSK_SKY_COLOR = Color.decode("#F0A060");
+
+    /**
+     * The length of a cycle, in seconds.
+     */
+    private final float cycleLength;
+
+    /**
+     * The sky, its renderable is swapped by the time of day.
+     */
+    private final GameObject sky;
+
+    /**
+     * The sun.
+     */
+    private final GameObject sun;
+
+    /**
+     * The halo around the sun.
+     */
+    private final GameObject halo;
+
+    /**
+     * The night, its opacity darkens the screen.
+     */
+    private final GameObject night;
+
+    /**
+     * The x-coordinate of the top-left corner of the sun by the time of day, with the first sample
+     * repeated at the end.
+     */
+    private final float[] sunX = new float[TABLE_SIZE + 1];
+
+    /**
+     * The y-coordinate of the top-left corner of the sun by the time of day.
+     */
+    private final float[] sunY = new float[TABLE_SIZE + 1];
+
+    /**
+     * The x-coordinate of the top-left corner of the halo by the time of day.
+     */
+    private final float[] haloX = new float[TABLE_SIZE + 1];
+
+    /**
+     * The y-coordinate of the top-left corner of the halo by the time of day.
+     */
+    private final float[] haloY = new float[TABLE_SIZE + 1];
+
+    /**
+     * The opacity of the night by the time of day.
+     */
+    private final float[] nightOpacity = new float[TABLE_SIZE + 1];
+
+    /**
+     * The renderable of the sky by the time of day, steps with the same color share one renderable.
+     */
+    private final Renderable[] skyRenderables = new Renderable[SKY_STEPS];
+
+    /**
+     * The time since the start of the current cycle, in seconds.
+     */
+    private float time;
+
+    /**
+     * The sky step that is currently shown.
+     */
+    private int skyStep = -1;
+
+    /**
+     * Constructs a new day cycle and puts its objects at the time the game starts at.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param cycleLength      The length of a day, in seconds.
+     * @param sky              The sky.
+     * @param sun              The sun.
+     * @param halo             The halo around the sun.
+     * @param night            The night.
+     */
+    public DayCycle(Vector2 windowDimensions, float cycleLength, GameObject sky, GameObject sun,
+                    GameObject halo, GameObject night){
+        this.cycleLength = cycleLength;
+        this.sky = sky;
+        this.sun = sun;
+        this.halo = halo;
+        this.night = night;
+        this.time = START_PHASE * cycleLength;
+        fillTables(windowDimensions, sun.getDimensions(), halo.getDimensions());
+        update(0);
+    }
+
+    /**
+     * Advances the clock and moves the sun, the halo, the night and the sky to the new time of day.
+     *
+     * @param deltaTime The time elapsed since the last update.
+     */
+    public void update(float deltaTime){
+        this.time = (this.time + deltaTime) % this.cycleLength;
+        float position = this.time / this.cycleLength * TABLE_SIZE;
+        int i = Math.min((int) position, TABLE_SIZE - 1);
+        float t = position - i;
+        this.sun.transform().setTopLeftCorner(lerp(this.sunX, i, t), lerp(this.sunY, i, t));
+        this.halo.transform().setTopLeftCorner(lerp(this.haloX, i, t), lerp(this.haloY, i, t));
+        this.night.renderer().setOpaqueness(lerp(this.nightOpacity, i, t));
+        int step = Math.min((int) (this.time / this.cycleLength * SKY_STEPS), SKY_STEPS - 1);
+        if (step != this.skyStep){
+            this.skyStep = step;
+            this.sky.renderer().setRenderable(this.skyRenderables[step]);
+        }
+    }
+
+    /**
+     * Calculates the tables of the whole cycle.
+     * The sun turns around the middle of the window, starting below it at the beginning of the cycle,
+     * and the night and the sky follow how high it is.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param sunDimensions    The dimensions of the sun.
+     * @param haloDimensions   The dimensions of the halo.
+     */
+    private void fillTables(Vector2 windowDimensions, Vector2 sunDimensions, Vector2 haloDimensions){
+        float centerX = windowDimensions.x() / 2;
+        float centerY = windowDimensions.y() / 2;
+        float radius = windowDimensions.y() * 2 / 3 - centerY;
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            double angle = 2 * Math.PI * i / TABLE_SIZE;
+            // the start point (0, radius) around the center, rotated by the angle.
+            float x = centerX - radius * (float) Math.sin(angle);
+            float y = centerY + radius * (float) Math.cos(angle);
+            this.sunX[i] = x - sunDimensions.x() / 2;
+            this.sunY[i] = y - sunDimensions.y() / 2;
+            this.haloX[i] = x - haloDimensions.x() / 2;
+            this.haloY[i] = y - haloDimensions.y() / 2;
+            float darkness = (1 + (float) Math.cos(angle)) / 2;
+            this.nightOpacity[i] = MIDNIGHT_OPACITY * darkness * darkness * (3 - 2 * darkness);
+        }
+        Map<Integer, Renderable> shared = new HashMap<>();
+        for (int step = 0; step < SKY_STEPS; step++) {
+            double angle = 2 * Math.PI * (step + 0.5) / SKY_STEPS;
+            Color color = skyColor((float) -Math.cos(angle), angle < Math.PI);
+            this.skyRenderables[step] = shared.computeIfAbsent(color.getRGB(),
+                    rgb -> new RectangleRenderable(color));
+        }
+    }
+
+    /**
+     * Returns the color of the sky for a height of the sun.
+     *
+     * @param elevation The height of the sun, -1 at midnight and 1 at noon.
+     * @param rising    true if the sun is rising, the morning sky gets the dawn color.
+     * @return The color of the sky.
+     */
+    private static Color skyColor(float elevation, boolean rising){
+        Color horizon = rising ? DAWN_SKY_COLOR : DUSK_SKY_COLOR;
+        if (elevation >= DAY_ELEVATION){
+            return Sky.BASIC_SKY_COLOR;
+        }
+        if (elevation >= 0){
+            return mix(horizon, Sky.BASIC_SKY_COLOR, elevation / DAY_ELEVATION);
+        }
+        if (elevation >= NIGHT_ELEVATION){
+            return mix(horizon, NIGHT_SKY_COLOR, elevation / NIGHT_ELEVATION);
+        }
+        return NIGHT_SKY_COLOR;
+    }
+
+    /**
+     * Mixes two colors.
+     *
+     * @param from The first color.
+     * @param to   The second color.
+     * @param t    The part of the second color, between 0 and 1.
+     * @return The mixed color.
+     */
+    private static Color mix(Color from, Color to, float t){
+        return new Color(Math.round(from.getRed() + (to.getRed() - from.getRed()) * t),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * t),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * t));
+    }
+
+    /**
+     * Interpolates between a sample of a table and the next one.
+     *
+     * @param table The table.
+     * @param i     The index of the sample.
+     * @param t     The part of the way to the next sample.
+     * @return The interpolated value.
+     */
+    private static float lerp(float[] table, int i, float t){
+        return table[i] + (table[i + 1] - table[i]) * t;
+    }
+}
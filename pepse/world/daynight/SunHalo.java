@@ -8,7 +8,7 @@ import danogl.util.Vector2;
 import java.awt.*;
 
 /**
- * Represents a halo effect around the sun.
+ * Represents a halo effect around the sun, it is moved with the sun by the day cycle.
  */
 public class SunHalo {
 
@@ -36,7 +36,6 @@ public class SunHalo {
         GameObject sunHalo = new GameObject(sun.getTopLeftCorner(),haloDim, rend);
         sunHalo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sun.setTag("sunHalo");
-        sunHalo.addComponent(  deltaTime -> sunHalo.setCenter(sun.getCenter()));
         return sunHalo;
     }
 }
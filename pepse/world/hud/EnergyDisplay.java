@@ -0,0 +1,78 @@
+package pepse.world.hud;
+
+import danogl.GameObject;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+import pepse.world.WorldEvents;
+
+import java.awt.*;
+
+/**
+ * A HUD widget that shows the energy of the avatar.
+ */
+public class EnergyDisplay {
+
+    /**
+     * The position of the energy text on the screen.
+     */
+    private static final Vector2 POSITION = new Vector2(50, 50);
+
+    /**
+     * The size of the energy text.
+     */
+    private static final Vector2 SIZE = new Vector2(30, 30);
+
+    /**
+     * The text that comes before the energy value.
+     */
+    private static final String PREFIX = "Energy: ";
+
+    /**
+     * The text renderable of the widget, its content is set only when the energy changes.
+     */
+    private final TextRenderable text;
+
+    /**
+     * The energy value that is currently shown, as a whole number.
+     */
+    private int shownEnergy;
+
+    /**
+     * Constructs a new energy display.
+     *
+     * @param initialEnergy The energy to show at first.
+     */
+    private EnergyDisplay(float initialEnergy){
+        this.shownEnergy = Math.round(initialEnergy);
+        this.text = new TextRenderable(PREFIX + this.shownEnergy);
+        this.text.setColor(Color.BLACK);
+    }
+
+    /**
+     * Creates the energy display game object, it listens to the energy changes of the avatar.
+     *
+     * @param events        The world events the energy changes are published to.
+     * @param initialEnergy The energy of the avatar when the display is created.
+     * @return The energy display game object.
+     */
+    public static GameObject create(WorldEvents events, float initialEnergy){
+        EnergyDisplay display = new EnergyDisplay(initialEnergy);
+        events.newGroup().subscribe(WorldEvents.Type.ENERGY_CHANGED, display::show);
+        GameObject energyShow = new GameObject(POSITION, SIZE, display.text);
+        energyShow.setTag("energy");
+        return energyShow;
+    }
+
+    /**
+     * Shows the energy value as a whole number, the text is rendered again only if it is different.
+     *
+     * @param energy The energy value.
+     */
+    private void show(float energy){
+        int rounded = Math.round(energy);
+        if (rounded != this.shownEnergy){
+            this.shownEnergy = rounded;
+            this.text.setString(PREFIX + rounded);
+        }
+    }
+}
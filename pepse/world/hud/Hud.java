@@ -0,0 +1,37 @@
+package pepse.world.hud;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.components.CoordinateSpace;
+
+/**
+ * The heads-up display of the game. Widgets are added once, stay in the UI layer in camera coordinates,
+ * and update their own content when it changes, so the HUD doesn't touch the game objects every frame.
+ */
+public class Hud {
+
+    /**
+     * All the game objects, the widgets are added to it.
+     */
+    private final GameObjectCollection gameObjects;
+
+    /**
+     * Constructs a new empty HUD.
+     *
+     * @param gameObjects The game object collection the widgets are added to.
+     */
+    public Hud(GameObjectCollection gameObjects){
+        this.gameObjects = gameObjects;
+    }
+
+    /**
+     * Adds a widget to the HUD, the widget stays at the same place on the screen.
+     *
+     * @param widget The widget game object.
+     */
+    public void addWidget(GameObject widget){
+        widget.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        this.gameObjects.addGameObject(widget, Layer.UI);
+    }
+}
@@ -0,0 +1,149 @@
+package pepse.world.save;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory-mapped file with the saved state of REGION_CHUNKS consecutive world chunks, or the same
+ * layout in plain memory for a world that isn't saved to the disk.
+ * The file has a small header and then a fixed-size slot for every chunk, so the state of a chunk is
+ * read and written in place at a known offset, without reading the rest of the file.
+ * Slot layout: an int of flags, an int that is reserved, and FRUITS ints with the tick of the world clock
+ * the fruit of every leaf of the chunk grows back at, 0 while it isn't eaten.
+ */
+class RegionFile {
+
+    /**
+     * The number of chunks in a region.
+     */
+    static final int REGION_CHUNKS = 64;
+
+    /**
+     * The number of fruits in a slot. A chunk has at most four trees of about 40 leaves.
+     */
+    static final int FRUITS = 256;
+
+    /**
+     * The magic number at the start of a region file.
+     */
+    private static final int MAGIC = 0x50524731;
+
+    /**
+     * The size of the file header: the magic number and the version.
+     */
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * The size of the slot of a chunk.
+     */
+    private static final int SLOT_BYTES = 8 + FRUITS * Integer.BYTES;
+
+    /**
+     * The flag of a slot that was written.
+     */
+    private static final int SLOT_USED = 1;
+
+    /**
+     * The version of the file layout.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The size of a region: the header and the slots.
+     */
+    private static final int REGION_BYTES = HEADER_BYTES + REGION_CHUNKS * SLOT_BYTES;
+
+    /**
+     * The mapped content of the file, or the memory of a region that isn't saved.
+     */
+    private final ByteBuffer map;
+
+    /**
+     * Creates an empty region in memory, for a world that isn't saved.
+     */
+    RegionFile(){
+        this.map = ByteBuffer.allocate(REGION_BYTES);
+    }
+
+    /**
+     * Maps a region file, it is created empty if it doesn't exist.
+     *
+     * @param file The path of the region file.
+     * @throws IOException If the file can't be created or mapped, or it isn't a region file.
+     */
+    RegionFile(Path file) throws IOException {
+        // the mapping stays valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            boolean created = channel.size() == 0;
+            this.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_BYTES);
+            if (created){
+                this.map.putInt(0, MAGIC);
+                this.map.putInt(4, VERSION);
+            } else if (this.map.getInt(0) != MAGIC || this.map.getInt(4) != VERSION){
+                throw new IOException(file + " is not a region file of this version");
+            }
+        }
+    }
+
+    /**
+     * Reads the regrowth ticks of the fruits of a chunk. The array is only made when a fruit is eaten, so
+     * loading the chunks of a world where nothing was eaten doesn't allocate.
+     *
+     * @param slot The slot of the chunk in the region.
+     * @return The FRUITS ticks, or null if no fruit of the chunk is eaten.
+     */
+    int[] readFruits(int slot){
+        int offset = slotOffset(slot);
+        if ((this.map.getInt(offset) & SLOT_USED) == 0){
+            return null;
+        }
+        int[] regrowth = null;
+        for (int f = 0; f < FRUITS; f++) {
+            int regrowsAt = this.map.getInt(offset + 8 + f * Integer.BYTES);
+            if (regrowsAt != 0){
+                if (regrowth == null){
+                    regrowth = new int[FRUITS];
+                }
+                regrowth[f] = regrowsAt;
+            }
+        }
+        return regrowth;
+    }
+
+    /**
+     * Sets the regrowth tick of a fruit of a chunk.
+     *
+     * @param slot      The slot of the chunk in the region.
+     * @param fruit     The index of the leaf of the fruit in the chunk.
+     * @param regrowsAt The tick the fruit grows back at, or 0 if it isn't eaten.
+     */
+    void setFruit(int slot, int fruit, int regrowsAt){
+        int offset = slotOffset(slot);
+        this.map.putInt(offset + 8 + fruit * Integer.BYTES, regrowsAt);
+        this.map.putInt(offset, this.map.getInt(offset) | SLOT_USED);
+    }
+
+    /**
+     * Writes the changed pages of the file to the disk, a region in memory has nothing to write.
+     */
+    void force(){
+        if (this.map instanceof MappedByteBuffer){
+            ((MappedByteBuffer) this.map).force();
+        }
+    }
+
+    /**
+     * Returns the offset of the slot of a chunk.
+     *
+     * @param slot The slot of the chunk in the region.
+     * @return The offset of the slot.
+     */
+    private static int slotOffset(int slot){
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
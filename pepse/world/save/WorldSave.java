@@ -0,0 +1,352 @@
+package pepse.world.save;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The saved state of a world: its seed, its clock, the avatar, and the fruits that are eaten in every
+ * chunk with the tick they grow back at. The clock is the tick of the timer wheel, it goes on from where
+ * the last session stopped, so a fruit eaten in an earlier session grows back after the rest of its time.
+ * Everything is kept in memory-mapped files in the save directory, a world file with the seed, the clock
+ * and the avatar and a region file for every REGION_CHUNKS chunks. Saving is writing a few bytes to the
+ * mapped memory, the operating system writes them to the disk, and a background thread asks it to
+ * do it every few seconds, so saving never waits for the disk on the game thread.
+ * Loading the state of a chunk is one lookup of its region and one read of its slot.
+ */
+public class WorldSave {
+
+    /**
+     * The magic number at the start of a world file.
+     */
+    private static final int MAGIC = 0x50575331;
+
+    /**
+     * The version of the world file layout.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The size of the world file: magic, version, flags, seed, avatar x, avatar y, energy and clock.
+     */
+    private static final int WORLD_BYTES = 36;
+
+    /**
+     * The flag of a world file with a seed.
+     */
+    private static final int HAS_SEED = 1;
+
+    /**
+     * The flag of a world file with an avatar.
+     */
+    private static final int HAS_AVATAR = 2;
+
+    /**
+     * The offset of the flags in the world file.
+     */
+    private static final int FLAGS = 8;
+
+    /**
+     * The offset of the seed in the world file.
+     */
+    private static final int SEED = 12;
+
+    /**
+     * The offset of the avatar x-coordinate in the world file.
+     */
+    private static final int AVATAR_X = 16;
+
+    /**
+     * The offset of the avatar y-coordinate in the world file.
+     */
+    private static final int AVATAR_Y = 20;
+
+    /**
+     * The offset of the avatar energy in the world file.
+     */
+    private static final int ENERGY = 24;
+
+    /**
+     * The offset of the clock in the world file, a long.
+     */
+    private static final int CLOCK = 28;
+
+    /**
+     * The time between two writes of the changed pages to the disk, in seconds.
+     */
+    private static final int FORCE_INTERVAL = 5;
+
+    /**
+     * The save directory, or null for a save that keeps nothing on the disk.
+     */
+    private final Path directory;
+
+    /**
+     * The mapped world file, or null for a save that keeps nothing on the disk.
+     */
+    private final MappedByteBuffer world;
+
+    /**
+     * The regions that were opened, by their index.
+     */
+    private final Map<Integer, RegionFile> regions = new HashMap<>();
+
+    /**
+     * Constructs a save.
+     *
+     * @param directory The save directory, or null.
+     * @param world     The mapped world file, or null.
+     */
+    private WorldSave(Path directory, MappedByteBuffer world){
+        this.directory = directory;
+        this.world = world;
+    }
+
+    /**
+     * Returns a save that keeps nothing on the disk, every world it is used for is a new one. Its regions
+     * are kept in memory while the game runs, so a fruit whose chunk was unloaded and loaded again still
+     * grows back at the tick it was going to.
+     *
+     * @return The save.
+     */
+    public static WorldSave none(){
+        return new WorldSave(null, null);
+    }
+
+    /**
+     * Opens the save in a directory, the directory and the world file are created if they don't exist.
+     * If the save can't be opened the error is printed and a save that keeps nothing is returned, the
+     * game can still be played.
+     *
+     * @param directory The save directory.
+     * @return The save.
+     */
+    public static WorldSave open(Path directory){
+        try {
+            Files.createDirectories(directory);
+            MappedByteBuffer world;
+            try (FileChannel channel = FileChannel.open(directory.resolve("world.dat"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                boolean created = channel.size() == 0;
+                world = channel.map(FileChannel.MapMode.READ_WRITE, 0, WORLD_BYTES);
+                if (created){
+                    world.putInt(0, MAGIC);
+                    world.putInt(4, VERSION);
+                } else if (world.getInt(0) != MAGIC || world.getInt(4) != VERSION){
+                    throw new IOException("the world file is not of this version");
+                }
+            }
+            WorldSave save = new WorldSave(directory, world);
+            save.startForcing();
+            return save;
+        } catch (IOException e) {
+            System.err.println("can't open the save in " + directory + ", the world won't be saved: " +
+                    e.getMessage());
+            return none();
+        }
+    }
+
+    /**
+     * Checks if the save has the seed of a world.
+     *
+     * @return true if a world was saved.
+     */
+    public boolean hasSeed(){
+        return this.world != null && (this.world.getInt(FLAGS) & HAS_SEED) != 0;
+    }
+
+    /**
+     * Returns the seed of the saved world.
+     *
+     * @return The seed.
+     */
+    public int getSeed(){
+        return this.world.getInt(SEED);
+    }
+
+    /**
+     * Saves the seed of a new world.
+     *
+     * @param seed The seed.
+     */
+    public void saveSeed(int seed){
+        if (this.world != null){
+            this.world.putInt(SEED, seed);
+            this.world.putInt(FLAGS, this.world.getInt(FLAGS) | HAS_SEED);
+        }
+    }
+
+    /**
+     * Checks if the save has the avatar state.
+     *
+     * @return true if the avatar was saved.
+     */
+    public boolean hasAvatar(){
+        return this.world != null && (this.world.getInt(FLAGS) & HAS_AVATAR) != 0;
+    }
+
+    /**
+     * Returns the saved x-coordinate of the avatar's top-left corner.
+     *
+     * @return The x-coordinate.
+     */
+    public float getAvatarX(){
+        return this.world.getFloat(AVATAR_X);
+    }
+
+    /**
+     * Returns the saved y-coordinate of the avatar's top-left corner.
+     *
+     * @return The y-coordinate.
+     */
+    public float getAvatarY(){
+        return this.world.getFloat(AVATAR_Y);
+    }
+
+    /**
+     * Returns the saved energy of the avatar.
+     *
+     * @return The energy.
+     */
+    public float getEnergy(){
+        return this.world.getFloat(ENERGY);
+    }
+
+    /**
+     * Saves the state of the avatar.
+     *
+     * @param x      The x-coordinate of the avatar's top-left corner.
+     * @param y      The y-coordinate of the avatar's top-left corner.
+     * @param energy The energy of the avatar.
+     */
+    public void saveAvatar(float x, float y, float energy){
+        if (this.world != null){
+            this.world.putFloat(AVATAR_X, x);
+            this.world.putFloat(AVATAR_Y, y);
+            this.world.putFloat(ENERGY, energy);
+            this.world.putInt(FLAGS, this.world.getInt(FLAGS) | HAS_AVATAR);
+        }
+    }
+
+    /**
+     * Returns the saved clock of the world, the tick the last session got to.
+     *
+     * @return The tick, 0 for a new world.
+     */
+    public long getClock(){
+        return this.world == null ? 0 : this.world.getLong(CLOCK);
+    }
+
+    /**
+     * Saves the clock of the world.
+     *
+     * @param tick The current tick of the world.
+     */
+    public void saveClock(long tick){
+        if (this.world != null){
+            this.world.putLong(CLOCK, tick);
+        }
+    }
+
+    /**
+     * Reads the eaten fruits of a chunk. It can be called from the chunk generating threads, and opens
+     * the region of the chunk so saving its fruits later doesn't have to.
+     *
+     * @param chunk The index of the chunk.
+     * @return The ticks the fruits grow back at by the index of their leaf in the chunk, 0 for the ones
+     *         that aren't eaten, or null if none is eaten.
+     */
+    public int[] eatenFruits(int chunk){
+        RegionFile region = region(chunk);
+        return region == null ? null : region.readFruits(Math.floorMod(chunk, RegionFile.REGION_CHUNKS));
+    }
+
+    /**
+     * Saves the tick an eaten fruit grows back at. Fruits of leaves past the slot size aren't saved.
+     *
+     * @param chunk     The index of the chunk of the fruit.
+     * @param fruit     The index of the leaf of the fruit in the chunk.
+     * @param regrowsAt The tick of the world clock the fruit grows back at, or 0 if it isn't eaten.
+     */
+    public void saveFruit(int chunk, int fruit, long regrowsAt){
+        if (fruit >= RegionFile.FRUITS){
+            return;
+        }
+        RegionFile region = region(chunk);
+        if (region != null){
+            region.setFruit(Math.floorMod(chunk, RegionFile.REGION_CHUNKS), fruit, (int) regrowsAt);
+        }
+    }
+
+    /**
+     * Returns the tick a fruit grows back at from the eaten fruits of a chunk.
+     *
+     * @param regrowth The ticks of the eaten fruits of the chunk, or null.
+     * @param fruit    The index of the leaf of the fruit in the chunk.
+     * @return The tick, or 0 if the fruit isn't eaten.
+     */
+    public static long regrowsAt(int[] regrowth, int fruit){
+        return regrowth != null && fruit < regrowth.length ? regrowth[fruit] : 0;
+    }
+
+    /**
+     * Returns the region of a chunk, it is opened or created the first time.
+     *
+     * @param chunk The index of the chunk.
+     * @return The region, or null for a region that can't be opened.
+     */
+    private synchronized RegionFile region(int chunk){
+        int index = Math.floorDiv(chunk, RegionFile.REGION_CHUNKS);
+        RegionFile region = this.regions.get(index);
+        if (region == null && !this.regions.containsKey(index)){
+            if (this.directory == null){
+                region = new RegionFile();
+            } else {
+                try {
+                    region = new RegionFile(this.directory.resolve("r" + index + ".dat"));
+                } catch (IOException e) {
+                    System.err.println("can't open region " + index + ", its chunks won't be saved: " +
+                            e.getMessage());
+                }
+            }
+            this.regions.put(index, region);
+        }
+        return region;
+    }
+
+    /**
+     * Starts the background thread that writes the changed pages to the disk every few seconds.
+     */
+    private void startForcing(){
+        ScheduledExecutorService forcer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "world-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+        forcer.scheduleWithFixedDelay(this::force, FORCE_INTERVAL, FORCE_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Writes the changed pages of all the files to the disk.
+     */
+    private void force(){
+        this.world.force();
+        RegionFile[] opened;
+        synchronized (this) {
+            opened = this.regions.values().toArray(new RegionFile[0]);
+        }
+        for (RegionFile region : opened) {
+            if (region != null){
+                region.force();
+            }
+        }
+    }
+}
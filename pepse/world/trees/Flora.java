@@ -2,12 +2,15 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
-import danogl.gui.rendering.OvalRenderable;
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
+import pepse.util.RenderablePalette;
+import pepse.util.TimerWheel;
+import pepse.util.WorldHash;
 import pepse.world.Block;
+import pepse.world.EntityPools;
 import pepse.world.Terrain;
+import pepse.world.WorldEvents;
 
 import java.awt.*;
 import java.util.*;
@@ -26,117 +29,183 @@ public class Flora {
     private final int RIGHT_X_RANGE_COORDINATE = 120;
     private final int LEFT_X_RANGE_COORDINATE = 90;
     private final int Y_RANGE_COORDINATES = 90;
-    private final int APPLE_DIMENSIONS = 15;
     private final int DISTANCE_BETWEEN_TREES = 120;
-
-    private final Vector2 windowDim;
+    private final float TREE_PROBABILITY = 0.1f;
+    private final int MIN_TREE_HEIGHT = 5;
+    private final float LEAF_PROBABILITY = 0.1f;
+    private final int FRUIT_CHANCES = 10;
+    private final float[] LEAVES_ANGLES = new float[]{5f, -5f, 10f, -10f};
+
+    // the feature numbers of the hashed random values, see WorldHash.
+    private static final int TREE_FEATURE = 1;
+    private static final int HEIGHT_FEATURE = 2;
+    private static final int ANGLE_FEATURE = 3;
+    private static final int FRUIT_FEATURE = 0x10000;
+    private static final int LEAF_FEATURE = 0x20000;
+
+    private final Terrain terrain;
+    private final WorldEvents events;
+    private final EntityPools pools;
+    private final TimerWheel timers;
 
     /**
      * Creates a new Flora instance.
      *
-     * @param windowDimensions The dimensions of the game window.
-     * @param seed             The seed value for random generation.
+     * @param terrain The terrain the trees grow on, its height cache is shared with the ground.
+     * @param seed    The seed value for random generation.
+     * @param events  The world events, the fruits publish to it when they are eaten.
+     * @param pools   The pools the trunks, leaves and fruits are taken from.
+     * @param timers  The timer wheel that makes the eaten fruits grow back.
      */
-    public Flora(Vector2 windowDimensions, int seed){
-        this.windowDim = windowDimensions;
+    public Flora(Terrain terrain, int seed, WorldEvents events, EntityPools pools, TimerWheel timers){
+        this.terrain = terrain;
+        this.events = events;
+        this.pools = pools;
+        this.timers = timers;
         this.seed = seed;
 
     }
 
     /**
-     * Creates a range of trees within the specified X coordinates.
+     * Generates the trees within the specified X coordinates as plain data.
+     * Every tree is made only from the seed and its column, so a range always gives the same trees
+     * whatever ranges were generated before it, and ranges can be generated on any thread.
      *
      * @param minX The minimum X coordinate.
      * @param maxX The maximum X coordinate.
-     * @return A HashMap containing blocks, tree leaves, and tree fruits for each tree created.
+     * @return The trees, their leaves and fruits of the range.
      */
-    public  HashMap<Block,  HashMap<TreeLeaves, TreeFruits>> createInRange(int minX, int maxX){
-        HashMap<Block, HashMap<TreeLeaves, TreeFruits>> TreeList = new HashMap<>();
+    public Forest planInRange(int minX, int maxX){
+        Forest forest = new Forest();
         int min = getMinRange(minX);
         int max =getMaxRange(maxX);
-        Random random = new Random(1);
-        RectangleRenderable rendTrunk = new RectangleRenderable
-                (ColorSupplier.approximateColor(TREE_TRUNK_COLOR));
-        RectangleRenderable rendLeaves = new RectangleRenderable
-                (ColorSupplier.approximateColor(TREE_LEAVES_COLOR));
-        Terrain ter = new Terrain(this.windowDim, seed);
-        createAllTrees(min, max, random, ter, rendTrunk, rendLeaves, TreeList);
-        return TreeList;
-    }
-
-    /**
-     * Creates all trees within the specified range and adds them to the tree list.
-     *  (full built trees with leaves and fruits.
-     * @param min         The minimum X coordinate.
-     * @param max         The maximum X coordinate.
-     * @param random      The random number generator.
-     * @param ter         The terrain object.
-     * @param rendTrunk   The renderable for tree trunks.
-     * @param rendLeaves  The renderable for tree leaves.
-     * @param TreeList    The HashMap containing blocks, tree leaves, and tree fruits for each tree.
-     */
-    private void createAllTrees(int min, int max, Random random, Terrain ter, RectangleRenderable rendTrunk,
-                                RectangleRenderable rendLeaves, HashMap<Block, HashMap<TreeLeaves,
-            TreeFruits>> TreeList) {
-        OvalRenderable appleShape = new OvalRenderable(Color.RED);
         for (int i = min; i <= max; i+=Block.SIZE) {
-            float blockProb = random.nextFloat();
-            if (blockProb < 0.1){
-                int yVal = (int) Math.floor(ter.groundHeightAt(i)/ Block.SIZE) * Block.SIZE;
-                int treeHeight = random.nextInt(TREE_HEIGHT/Block.SIZE);
-                while(treeHeight < 5){
-                    treeHeight = random.nextInt(TREE_HEIGHT/Block.SIZE);
-                }
+            int column = Math.floorDiv(i, Block.SIZE);
+            if (isTreeAt(column)){
+                int yVal = (int) Math.floor(terrain.groundHeightAt(i)/ Block.SIZE) * Block.SIZE;
+                int treeHeight = MIN_TREE_HEIGHT + WorldHash.below(seed, column, HEIGHT_FEATURE,
+                        TREE_HEIGHT/Block.SIZE - MIN_TREE_HEIGHT);
                 int treeTop = yVal - treeHeight * Block.SIZE;
                 int xRightRange = i + RIGHT_X_RANGE_COORDINATE;
                 int xLeftRange = i - LEFT_X_RANGE_COORDINATE;
                 int yUpRange = treeTop - Y_RANGE_COORDINATES;
                 int yDownRange = treeTop + Y_RANGE_COORDINATES;
-                float init = getAngle();
+                forest.addTree(i, yVal, treeHeight, getAngle(column));
+                planLeavesAndApples(forest, column, treeHeight, xLeftRange, xRightRange,
+                        yUpRange, yDownRange);
+                i += DISTANCE_BETWEEN_TREES;
+            }
+        }
+        return forest;
+    }
 
-                Block trunkBlock = new Block(new Vector2(i,yVal-((float) (treeHeight * Block.SIZE) /2)
-                        - ((float) Block.SIZE /2)),rendTrunk);
+    /**
+     * Creates the trunk game object of a tree.
+     *
+     * @param forest The forest the tree is in.
+     * @param tree   The index of the tree in the forest.
+     * @return The trunk block.
+     */
+    public Block createTrunk(Forest forest, int tree){
+        int x = forest.trunkX(tree);
+        int treeHeight = forest.trunkHeight(tree);
+        // the shades are picked by the column so each tree gets its own shared colors.
+        Renderable rendTrunk = RenderablePalette.approximateRectangle(TREE_TRUNK_COLOR, x / Block.SIZE);
+        float y = forest.groundY(tree)-((float) (treeHeight * Block.SIZE) /2) - ((float) Block.SIZE /2);
+        return this.pools.block(new Vector2(x, y), new Vector2(Block.SIZE,treeHeight*Block.SIZE),
+                rendTrunk, "trunk");
+    }
 
+    /**
+     * Creates the game object of a leaf.
+     *
+     * @param forest The forest the leaf is in.
+     * @param tree   The index of the tree of the leaf.
+     * @param leaf   The index of the leaf in the forest.
+     * @return The leaf game object.
+     */
+    public TreeLeaves createLeaf(Forest forest, int tree, int leaf){
+        Renderable rendLeaves = RenderablePalette.approximateRectangle(TREE_LEAVES_COLOR,
+                forest.trunkX(tree) / Block.SIZE);
+        return TreeLeaves.create(new Vector2(forest.leafX(leaf), forest.leafY(leaf)), rendLeaves,
+                forest.angle(tree), this.pools);
+    }
 
-                trunkBlock.setDimensions(new Vector2(Block.SIZE,treeHeight*Block.SIZE));
-                trunkBlock.setTag("trunk");
-                HashMap<TreeLeaves, TreeFruits> treeLeaves = new HashMap<>();
-                createLeavesAndApples(random, rendLeaves, treeHeight, xLeftRange, xRightRange,
-                        yUpRange, yDownRange, treeLeaves, init, appleShape);
-                TreeList.put(trunkBlock, treeLeaves);
-                i += DISTANCE_BETWEEN_TREES;
+    /**
+     * Creates the game object of the fruit of a leaf.
+     *
+     * @param forest The forest the leaf is in.
+     * @param leaf   The index of the leaf in the forest.
+     * @return The fruit game object, or null if the leaf has no fruit.
+     */
+    public TreeFruits createFruit(Forest forest, int leaf){
+        if (!forest.hasFruit(leaf)){
+            return null;
+        }
+        return TreeFruits.create(new Vector2(forest.leafX(leaf), forest.leafY(leaf)), this.events,
+                this.timers, this.pools);
+    }
+
+    /**
+     * Checks if a tree grows in a column.
+     * A column is a candidate with probability 0.1, and a candidate grows a tree only if none of the
+     * columns within DISTANCE_BETWEEN_TREES before it is a candidate. This keeps the trees at least as
+     * far apart as skipping DISTANCE_BETWEEN_TREES after every tree, without walking the columns in
+     * order, but it is stricter: a candidate that didn't grow a tree still blocks the columns after it
+     * (candidates at columns 0, 3 and 6 grow trees at 0 and 6 when skipping, but only at 0 here), so
+     * there are somewhat fewer trees.
+     *
+     * @param column The column.
+     * @return true if a tree grows in the column.
+     */
+    private boolean isTreeAt(int column){
+        if (!isTreeCandidate(column)){
+            return false;
+        }
+        for (int k = 1; k <= DISTANCE_BETWEEN_TREES / Block.SIZE; k++) {
+            if (isTreeCandidate(column - k)){
+                return false;
             }
         }
+        return true;
+    }
+
+    /**
+     * Checks if a column is a candidate for a tree.
+     *
+     * @param column The column.
+     * @return true if the column is a candidate for a tree.
+     */
+    private boolean isTreeCandidate(int column){
+        return WorldHash.unit(seed, column, TREE_FEATURE) < TREE_PROBABILITY;
     }
 
     /**
-     * Creates leaves and apples for trees.
+     * Generates the leaves and apples of the last tree added to the forest.
+     * A tree used to throw the leaves of its canopy once for every block of its height, so a cell
+     * of the canopy gets a leaf with the chance of any of these throws, and each leaf gets a fruit
+     * by the hash of its cell.
      *
-     * @param random       The random number generator.
-     * @param rendLeaves   The renderable for the leaves.
+     * @param forest       The forest the tree is in.
+     * @param column       The column of the tree.
      * @param treeHeight   The height of the tree.
      * @param xLeftRange   The left range for x coordinates.
      * @param xRightRange  The right range for x coordinates.
      * @param yUpRange     The upper range for y coordinates.
      * @param yDownRange   The lower range for y coordinates.
-     * @param treeLeaves   The mapping of tree leaves to fruits.
-     * @param init         The initial value.
-     * @param appleShape   The shape of the apple.
      */
-    private void createLeavesAndApples(Random random, RectangleRenderable rendLeaves,
-                                       int treeHeight, int xLeftRange, int xRightRange,
-                                       int yUpRange, int yDownRange, HashMap<TreeLeaves,
-            TreeFruits> treeLeaves, float init, OvalRenderable appleShape) {
-        for (int j = 0; j < treeHeight; j++) {
-            TreeLeaves.createLeaves(xLeftRange, xRightRange, yUpRange,
-                    yDownRange, rendLeaves, treeLeaves, init);
-        }
-        for (TreeLeaves leaf : treeLeaves.keySet()){
-            int appleRand = random.nextInt(10);
-                TreeFruits app = new TreeFruits(leaf.getTopLeftCorner(),
-                        new Vector2(APPLE_DIMENSIONS,APPLE_DIMENSIONS), appleShape);
-                TreeFruits apple = app.createFruites(appleRand, leaf);
-            treeLeaves.put(leaf, apple);
+    private void planLeavesAndApples(Forest forest, int column, int treeHeight, int xLeftRange,
+                                     int xRightRange, int yUpRange, int yDownRange) {
+        float leafChance = 1 - (float) Math.pow(1 - LEAF_PROBABILITY, treeHeight);
+        int rows = (yDownRange - yUpRange) / Block.SIZE;
+        for (int k = xLeftRange; k < xRightRange; k+= Block.SIZE) {
+            for (int l = yUpRange; l < yDownRange; l+=Block.SIZE) {
+                int cell = (k - xLeftRange) / Block.SIZE * rows + (l - yUpRange) / Block.SIZE;
+                if(WorldHash.unit(seed, column, LEAF_FEATURE + cell) < leafChance){
+                    int appleRand = WorldHash.below(seed, column, FRUIT_FEATURE + cell, FRUIT_CHANCES);
+                    forest.addLeaf(k, l, TreeFruits.growsFruit(appleRand));
+                }
+            }
         }
     }
 
@@ -188,25 +257,13 @@ public class Flora {
 
 
     /**
-     * Returns a random angle for tree leaves.
+     * Returns a random angle for the leaves of a tree.
      *
+     * @param column The column of the tree.
      * @return A random angle for tree leaves.
      */
-    private float getAngle(){
-        Random rand = new Random();
-        int randomInt = rand.nextInt(4);
-        if(randomInt == 0){
-            return 5f;
-        }
-        else if (randomInt == 1){
-            return -5f;
-        }
-        else if (randomInt == 2){
-            return 10f;
-        }
-        else{
-            return -10f;
-        }
+    private float getAngle(int column){
+        return LEAVES_ANGLES[WorldHash.below(seed, column, ANGLE_FEATURE, LEAVES_ANGLES.length)];
     }
 }
 
@@ -0,0 +1,230 @@
+package pepse.world.trees;
+
+import java.util.Arrays;
+
+/**
+ * The trees of a range of the world as plain data, in flat primitive arrays (one array per field).
+ * For every tree it keeps its trunk column, ground height, height and leaves angle, and the range of
+ * its leaves in the leaf arrays. For every leaf it keeps its position and one bit that tells if it has
+ * a fruit. A forest is cheap to generate on any thread and is turned into game objects only when the
+ * chunk it belongs to is loaded.
+ */
+public class Forest {
+
+    /**
+     * The initial capacity of the tree arrays.
+     */
+    private static final int INITIAL_TREES = 4;
+
+    /**
+     * The initial capacity of the leaf arrays.
+     */
+    private static final int INITIAL_LEAVES = 64;
+
+    /**
+     * The number of trees.
+     */
+    private int trees = 0;
+
+    /**
+     * The x-coordinate of the trunk of each tree.
+     */
+    private int[] trunkX = new int[INITIAL_TREES];
+
+    /**
+     * The y-coordinate of the ground under each tree.
+     */
+    private int[] groundY = new int[INITIAL_TREES];
+
+    /**
+     * The height of each tree in blocks.
+     */
+    private int[] trunkHeights = new int[INITIAL_TREES];
+
+    /**
+     * The angle the leaves of each tree sway from.
+     */
+    private float[] angles = new float[INITIAL_TREES];
+
+    /**
+     * The index of the first leaf after the leaves of each tree, the leaves of tree t are the
+     * ones from leavesEnd[t - 1] (or 0) up to leavesEnd[t].
+     */
+    private int[] leavesEnd = new int[INITIAL_TREES];
+
+    /**
+     * The number of leaves.
+     */
+    private int leaves = 0;
+
+    /**
+     * The x-coordinate of each leaf.
+     */
+    private int[] leafX = new int[INITIAL_LEAVES];
+
+    /**
+     * The y-coordinate of each leaf.
+     */
+    private int[] leafY = new int[INITIAL_LEAVES];
+
+    /**
+     * One bit for each leaf, set if the leaf has a fruit.
+     */
+    private long[] fruitBits = new long[INITIAL_LEAVES / Long.SIZE];
+
+    /**
+     * Adds a tree, the leaves added after it (until the next tree) belong to it.
+     *
+     * @param x       The x-coordinate of the trunk.
+     * @param ground  The y-coordinate of the ground under the tree.
+     * @param height  The height of the tree in blocks.
+     * @param angle   The angle the leaves of the tree sway from.
+     */
+    void addTree(int x, int ground, int height, float angle){
+        if (this.trees == this.trunkX.length){
+            int capacity = this.trees * 2;
+            this.trunkX = Arrays.copyOf(this.trunkX, capacity);
+            this.groundY = Arrays.copyOf(this.groundY, capacity);
+            this.trunkHeights = Arrays.copyOf(this.trunkHeights, capacity);
+            this.angles = Arrays.copyOf(this.angles, capacity);
+            this.leavesEnd = Arrays.copyOf(this.leavesEnd, capacity);
+        }
+        this.trunkX[this.trees] = x;
+        this.groundY[this.trees] = ground;
+        this.trunkHeights[this.trees] = height;
+        this.angles[this.trees] = angle;
+        this.leavesEnd[this.trees] = this.leaves;
+        this.trees++;
+    }
+
+    /**
+     * Adds a leaf to the last added tree.
+     *
+     * @param x        The x-coordinate of the leaf.
+     * @param y        The y-coordinate of the leaf.
+     * @param hasFruit true if the leaf has a fruit.
+     */
+    void addLeaf(int x, int y, boolean hasFruit){
+        if (this.leaves == this.leafX.length){
+            int capacity = this.leaves * 2;
+            this.leafX = Arrays.copyOf(this.leafX, capacity);
+            this.leafY = Arrays.copyOf(this.leafY, capacity);
+            this.fruitBits = Arrays.copyOf(this.fruitBits, capacity / Long.SIZE);
+        }
+        this.leafX[this.leaves] = x;
+        this.leafY[this.leaves] = y;
+        if (hasFruit){
+            this.fruitBits[this.leaves / Long.SIZE] |= 1L << this.leaves;
+        }
+        this.leaves++;
+        this.leavesEnd[this.trees - 1] = this.leaves;
+    }
+
+    /**
+     * Returns the number of trees.
+     *
+     * @return The number of trees.
+     */
+    public int treeCount(){
+        return this.trees;
+    }
+
+    /**
+     * Returns the number of leaves of all the trees.
+     *
+     * @return The number of leaves.
+     */
+    public int leafCount(){
+        return this.leaves;
+    }
+
+    /**
+     * Returns the x-coordinate of the trunk of a tree.
+     *
+     * @param tree The index of the tree.
+     * @return The x-coordinate of the trunk.
+     */
+    public int trunkX(int tree){
+        return this.trunkX[tree];
+    }
+
+    /**
+     * Returns the y-coordinate of the ground under a tree.
+     *
+     * @param tree The index of the tree.
+     * @return The y-coordinate of the ground.
+     */
+    public int groundY(int tree){
+        return this.groundY[tree];
+    }
+
+    /**
+     * Returns the height of a tree in blocks.
+     *
+     * @param tree The index of the tree.
+     * @return The height of the tree.
+     */
+    public int trunkHeight(int tree){
+        return this.trunkHeights[tree];
+    }
+
+    /**
+     * Returns the angle the leaves of a tree sway from.
+     *
+     * @param tree The index of the tree.
+     * @return The angle of the leaves.
+     */
+    public float angle(int tree){
+        return this.angles[tree];
+    }
+
+    /**
+     * Returns the index of the first leaf of a tree.
+     *
+     * @param tree The index of the tree.
+     * @return The index of the first leaf.
+     */
+    public int leavesStart(int tree){
+        return tree == 0 ? 0 : this.leavesEnd[tree - 1];
+    }
+
+    /**
+     * Returns the index after the last leaf of a tree.
+     *
+     * @param tree The index of the tree.
+     * @return The index after the last leaf.
+     */
+    public int leavesEnd(int tree){
+        return this.leavesEnd[tree];
+    }
+
+    /**
+     * Returns the x-coordinate of a leaf.
+     *
+     * @param leaf The index of the leaf.
+     * @return The x-coordinate of the leaf.
+     */
+    public int leafX(int leaf){
+        return this.leafX[leaf];
+    }
+
+    /**
+     * Returns the y-coordinate of a leaf.
+     *
+     * @param leaf The index of the leaf.
+     * @return The y-coordinate of the leaf.
+     */
+    public int leafY(int leaf){
+        return this.leafY[leaf];
+    }
+
+    /**
+     * Checks if a leaf has a fruit.
+     *
+     * @param leaf The index of the leaf.
+     * @return true if the leaf has a fruit.
+     */
+    public boolean hasFruit(int leaf){
+        return (this.fruitBits[leaf / Long.SIZE] & (1L << leaf)) != 0;
+    }
+}
@@ -0,0 +1,149 @@
+package pepse.world.trees;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The gust that turns the leaves by 90 degrees when the avatar jumps.
+ * Every leaf has a single effect slot, so a jump starts at most one effect on a leaf and a new jump
+ * restarts the effect that is already running. The effect objects are taken from a bounded pool and
+ * returned to it when they end, so jumping doesn't leave anything behind on the leaves.
+ * Every effect knows its index in the list of running effects, so stopping one is a swap with the last,
+ * the same way the wind keeps its leaves packed.
+ */
+class JumpGusts {
+
+    /**
+     * The time it takes the gust to turn a leaf.
+     */
+    private static final float GUST_TIME = 0.6f;
+
+    /**
+     * The angle of a leaf when the gust starts.
+     */
+    private static final float STARTING_DEG = 0f;
+
+    /**
+     * The angle of a leaf when the gust ends.
+     */
+    private static final float FINAL_DEG = 90f;
+
+    /**
+     * The maximal number of free effects kept in the pool.
+     */
+    private static final int MAX_POOL_SIZE = 4096;
+
+    /**
+     * A running gust effect on a single leaf.
+     */
+    static class Effect {
+
+        /**
+         * The leaf the effect turns.
+         */
+        private TreeLeaves leaf;
+
+        /**
+         * The time since the effect started.
+         */
+        private float elapsed;
+
+        /**
+         * The index of the effect in the running effects.
+         */
+        private int slot;
+    }
+
+    /**
+     * The running effects.
+     */
+    private final List<Effect> active = new ArrayList<>();
+
+    /**
+     * The free effects that can be reused.
+     */
+    private final ArrayDeque<Effect> pool = new ArrayDeque<>();
+
+    /**
+     * Starts the gust on a leaf, or restarts it if it is already running on the leaf.
+     *
+     * @param leaf The leaf.
+     */
+    void start(TreeLeaves leaf){
+        Effect effect = leaf.getJumpGust();
+        if (effect == null){
+            effect = this.pool.isEmpty() ? new Effect() : this.pool.pop();
+            effect.leaf = leaf;
+            leaf.setJumpGust(effect);
+            effect.slot = this.active.size();
+            this.active.add(effect);
+        }
+        effect.elapsed = 0;
+    }
+
+    /**
+     * Stops the gust on a leaf if it is running on it. The last running effect takes its place.
+     *
+     * @param leaf The leaf.
+     */
+    void stop(TreeLeaves leaf){
+        Effect effect = leaf.getJumpGust();
+        if (effect != null){
+            Effect last = this.active.remove(this.active.size() - 1);
+            if (last != effect){
+                last.slot = effect.slot;
+                this.active.set(effect.slot, last);
+            }
+            release(effect);
+        }
+    }
+
+    /**
+     * Returns the number of running effects.
+     *
+     * @return The number of running effects.
+     */
+    int activeCount(){
+        return this.active.size();
+    }
+
+    /**
+     * Advances all the running effects and turns their leaves, the effects that ended go back to the pool.
+     *
+     * @param deltaTime The time elapsed since the last update.
+     */
+    void update(float deltaTime){
+        int kept = 0;
+        for (int i = 0; i < this.active.size(); i++) {
+            Effect effect = this.active.get(i);
+            effect.elapsed += deltaTime;
+            float progress = Math.min(effect.elapsed / GUST_TIME, 1);
+            effect.leaf.renderer().setRenderableAngle(STARTING_DEG + (FINAL_DEG - STARTING_DEG) * progress);
+            if (progress < 1){
+                effect.slot = kept;
+                this.active.set(kept++, effect);
+            }
+            else {
+                release(effect);
+            }
+        }
+        // the effects that ended were skipped above, cut the tail of the list.
+        while (this.active.size() > kept) {
+            this.active.remove(this.active.size() - 1);
+        }
+    }
+
+    /**
+     * Frees the leaf slot of an effect and returns the effect to the pool.
+     *
+     * @param effect The effect.
+     */
+    private void release(Effect effect){
+        effect.leaf.setJumpGust(null);
+        effect.leaf = null;
+        if (this.pool.size() < MAX_POOL_SIZE){
+            this.pool.push(effect);
+        }
+    }
+}
@@ -1,18 +1,17 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.collisions.Collision;
 import danogl.collisions.GameObjectCollection;
-import danogl.components.Transition;
 import danogl.gui.UserInputListener;
-import danogl.gui.rendering.OvalRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.world.Avatar;
+import pepse.util.RenderablePalette;
+import pepse.util.TimerWheel;
+import pepse.world.EntityPools;
+import pepse.world.WorldEvents;
+import pepse.world.save.WorldSave;
 
-import javax.swing.*;
 import java.awt.*;
-import java.util.Random;
 
 /**
  * Represents a fruit GameObject on a tree in the game world.
@@ -20,14 +19,35 @@ import java.util.Random;
 public class TreeFruits extends GameObject {
 
 
-    private final Vector2 appleSize = new Vector2(15,15);
-    private OvalRenderable app1 = new OvalRenderable(Color.RED);
-    private OvalRenderable app2 = new OvalRenderable(Color.PINK);
-    private OvalRenderable app3 = new OvalRenderable(Color.ORANGE);
-    private final int CYCLE_LENGTH = 30;
+    /**
+     * The size of a fruit that isn't eaten.
+     */
+    public static final Vector2 SIZE = new Vector2(15,15);
+    private static final Vector2 appleSize = SIZE;
+    private static final int CYCLE_LENGTH = 30;
+    private static final float FRUIT_ENERGY = 10;
 
-    private final Renderable[] appleShape = new Renderable[]{app1, app2, app3};
+    private static final Renderable[] appleShape = new Renderable[]{
+            RenderablePalette.oval(Color.RED),
+            RenderablePalette.oval(Color.PINK),
+            RenderablePalette.oval(Color.ORANGE)};
     private int colorsChange = 0;
+    private WorldEvents events;
+    private TimerWheel timers;
+    private boolean eaten = false;
+    private WorldSave save = null;
+    private int saveChunk;
+    private int saveIndex;
+
+    /**
+     * The timer that makes the fruit grow back, one per fruit and scheduled again for every eating.
+     */
+    private final TimerWheel.Timer regrowth = new TimerWheel.Timer() {
+        @Override
+        protected void expire() {
+            regrow();
+        }
+    };
 
     /**
      * Creates a new TreeFruits GameObject.
@@ -35,73 +55,148 @@ public class TreeFruits extends GameObject {
      * @param topLeftCorner The top-left corner position of the fruit.
      * @param dimensions    The dimensions of the fruit.
      * @param renderable    The renderable component used to render the fruit.
+     * @param events        The world events, the fruit publishes to it when it is eaten.
+     * @param timers        The timer wheel that makes the fruit grow back after it is eaten.
      */
-    public TreeFruits(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+    public TreeFruits(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                      WorldEvents events, TimerWheel timers) {
         super(topLeftCorner, dimensions, renderable);
+        this.events = events;
+        this.timers = timers;
+    }
 
+    /**
+     * Checks if a leaf grows a fruit.
+     *
+     * @param appleRand The random value (0 to 9) to determine if the fruit should be created.
+     * @return true if the leaf grows a fruit.
+     */
+    public static boolean growsFruit(int appleRand){
+        return appleRand > 7;
     }
 
     /**
      * Creates a new fruit GameObject on a tree leaf.
      *
-     * @param appleRand The random value to determine if the fruit should be created.
-     * @param leaf      The tree leaf GameObject on which the fruit is created.
-     * @return The new TreeFruits GameObject if created, or null otherwise.
+     * @param topLeftCorner The top-left corner of the leaf on which the fruit is created.
+     * @param events        The world events, the fruit publishes to it when it is eaten.
+     * @param timers        The timer wheel that makes the fruit grow back after it is eaten.
+     * @param pools         The pools the fruit is taken from.
+     * @return The new TreeFruits GameObject.
+     */
+    public static TreeFruits create(Vector2 topLeftCorner, WorldEvents events, TimerWheel timers,
+                                    EntityPools pools){
+        TreeFruits apple = pools.fruit(topLeftCorner, appleSize, appleShape[0], events, timers);
+        apple.setTag("apple");
+        return apple;
+    }
+
+    /**
+     * Makes the fruit save whether it is eaten, as the fruit of a leaf of a chunk.
+     *
+     * @param save  The world save.
+     * @param chunk The index of the chunk of the fruit.
+     * @param index The index of the leaf of the fruit in the chunk.
      */
-    public TreeFruits createFruites(int appleRand, TreeLeaves leaf){
-        if (appleRand > 7){
+    public void attachSave(WorldSave save, int chunk, int index) {
+        this.save = save;
+        this.saveChunk = chunk;
+        this.saveIndex = index;
+    }
 
-            TreeFruits apple = new TreeFruits(leaf.getTopLeftCorner(), appleSize,
-                    appleShape[0]);
-            apple.setTag("apple");
-            return apple;
+    /**
+     * The avatar touched the fruit. If it hasn't been eaten, it publishes that the fruit was eaten
+     * (which increases the avatar's energy value) and makes the fruit disappear until its regrowth
+     * timer expires.
+     */
+    public void eat() {
+        if (eaten){
+            return;
+        }
+        this.events.publish(WorldEvents.Type.FRUIT_EATEN, FRUIT_ENERGY);
+        hide();
+        timers.schedule(regrowth, CYCLE_LENGTH);
+        if (save != null){
+            save.saveFruit(saveChunk, saveIndex, regrowth.getDeadline());
         }
-        return null;
     }
 
     /**
-     * Handles the event when a collision occurs with another GameObject.
-     * If the other GameObject is the avatar, it increases the avatar's
-     * energy value and initiates a transition
-     * to make the fruit disappear temporarily.
+     * Makes a fruit that was saved as eaten go on regrowing, without giving its energy again. If the
+     * world clock got past its regrowth while its chunk was away, it is saved as grown back at once.
      *
-     * @param other     The other GameObject involved in the collision.
-     * @param collision The collision details.
+     * @param regrowsAt The saved tick of the world clock the fruit grows back at.
      */
-    @Override
-    public void onCollisionEnter(GameObject other, Collision collision) {
-        super.onCollisionEnter(other, collision);
-        if (other.getTag().equals("avatar")){
-            Avatar.energyVal+=10;
-            new Transition<>(this, (Float angle) -> this.setDimensions(new Vector2(0, 0)),
-                    0f, 0f, Transition.LINEAR_INTERPOLATOR_FLOAT, CYCLE_LENGTH,
-                    Transition.TransitionType.TRANSITION_ONCE, () -> {
-                this.setDimensions(appleSize);
-            });
+    public void restoreEaten(long regrowsAt) {
+        if (eaten){
+            return;
         }
+        if (regrowsAt <= timers.now()){
+            if (save != null){
+                save.saveFruit(saveChunk, saveIndex, 0);
+            }
+            return;
+        }
+        hide();
+        timers.scheduleAt(regrowth, regrowsAt);
     }
 
     /**
-     * Updates the fruit GameObject.
-     * If the avatar is jumping, it changes the fruit's color.
-     *
-     * @param deltaTime The time elapsed since the last update.
+     * Hides an eaten fruit until its regrowth. The timer runs on the game time, so a fruit whose chunk
+     * is asleep grows back on time too.
+     */
+    private void hide() {
+        eaten = true;
+        this.setDimensions(Vector2.ZERO);
+    }
+
+    /**
+     * Cancels the regrowth of the fruit, called when it is taken out of the game for good.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
+    public void stopRegrowth() {
+        timers.cancel(regrowth);
+    }
 
-        if (Avatar.isJumping){
-            changeColors();
+    /**
+     * Makes an eaten fruit grow back, called when its regrowth timer expires.
+     */
+    private void regrow() {
+        eaten = false;
+        this.setDimensions(appleSize);
+        if (save != null){
+            save.saveFruit(saveChunk, saveIndex, 0);
         }
     }
 
+    /**
+     * Resets a fruit that was taken back from the game so it can be used again,
+     * an eaten fruit grows back at once.
+     *
+     * @param topLeftCorner The new top-left corner of the fruit.
+     * @param dimensions    The new dimensions of the fruit.
+     * @param renderable    The new renderable of the fruit.
+     * @param events        The world events, the fruit publishes to it when it is eaten.
+     * @param timers        The timer wheel that makes the fruit grow back after it is eaten.
+     */
+    public void reuse(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                      WorldEvents events, TimerWheel timers) {
+        this.timers.cancel(regrowth);
+        eaten = false;
+        save = null;
+        setTopLeftCorner(topLeftCorner);
+        setDimensions(dimensions);
+        renderer().setRenderable(renderable);
+        colorsChange = 0;
+        this.events = events;
+        this.timers = timers;
+    }
+
     /**
      * Changes the color of the fruit GameObject.
-     * This method is called when the avatar is jumping, and it iterates through different colors
+     * This method is called when the avatar starts a jump, and it iterates through different colors
      * to simulate a color change effect.
      */
-    private void changeColors() {
+    public void changeColors() {
         colorsChange+=1;
         this.renderer().setRenderable(appleShape[colorsChange%3]);
     }
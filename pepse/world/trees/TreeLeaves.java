@@ -1,16 +1,10 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
-import danogl.components.ScheduledTask;
-import danogl.components.Transition;
-import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import pepse.world.Avatar;
 import pepse.world.Block;
-
-import java.util.HashMap;
-import java.util.Random;
+import pepse.world.EntityPools;
 
 
 /**
@@ -19,15 +13,11 @@ import java.util.Random;
 public class TreeLeaves extends GameObject {
 
 
-    private static final float TRANSATION_TIME = 0.6f;
-    private static final Vector2 leafSize = new Vector2(30,30);
-    private static final float STARTING_DEG = 0f;
-    private static final float FINAL_DEG = 90f;
-    private static final float WAIT_TIME = 5.0f;
-    private static final int WIND_ANGLE = 45;
-
-
+    private static final Vector2 LEAF_SIZE = new Vector2(Block.SIZE-1,Block.SIZE-1);
 
+    private float swayAngle = 0;
+    private int windSlot = -1;
+    private JumpGusts.Effect jumpGust = null;
 
     /**
      * Creates a new TreeLeaves GameObject.
@@ -41,60 +31,80 @@ public class TreeLeaves extends GameObject {
     }
 
     /**
-     * Creates leaves on a tree within the specified ranges and adds them to the given treeLeaves HashMap.
+     * Creates a leaf of a tree. The leaf doesn't move on its own, it should be added to the wind.
+     *
+     * @param topLeftCorner The top-left corner position of the leaf.
+     * @param rendLeaves    The renderable for the leaf.
+     * @param swayAngle     The angle the leaf sways from.
+     * @param pools         The pools the leaf is taken from.
+     * @return The leaf.
+     */
+    public static TreeLeaves create(Vector2 topLeftCorner, Renderable rendLeaves, float swayAngle,
+                                    EntityPools pools) {
+        TreeLeaves oneLeaf = pools.leaf(topLeftCorner, LEAF_SIZE, rendLeaves);
+        oneLeaf.swayAngle = swayAngle;
+        return oneLeaf;
+    }
+
+    /**
+     * Resets a leaf that was taken back from the game so it can be used again.
+     *
+     * @param topLeftCorner The new top-left corner of the leaf.
+     * @param dimensions    The new dimensions of the leaf.
+     * @param renderable    The new renderable of the leaf.
+     */
+    public void reuse(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        setTopLeftCorner(topLeftCorner);
+        setDimensions(dimensions);
+        renderer().setRenderable(renderable);
+        renderer().setRenderableAngle(0);
+        swayAngle = 0;
+        windSlot = -1;
+        jumpGust = null;
+    }
+
+    /**
+     * Returns the angle the leaf sways from.
+     *
+     * @return The sway angle of the leaf.
+     */
+    float getSwayAngle() {
+        return swayAngle;
+    }
+
+    /**
+     * Returns the slot of the leaf in the wind arrays.
+     *
+     * @return The wind slot, or -1 if the leaf is not moved by the wind.
+     */
+    int getWindSlot() {
+        return windSlot;
+    }
+
+    /**
+     * Sets the slot of the leaf in the wind arrays.
+     *
+     * @param windSlot The wind slot, or -1 if the leaf is not moved by the wind.
+     */
+    void setWindSlot(int windSlot) {
+        this.windSlot = windSlot;
+    }
+
+    /**
+     * Returns the jump gust effect running on the leaf.
      *
-     * @param xLeftRange    The left range of X coordinates.
-     * @param xRightRange   The right range of X coordinates.
-     * @param yUpRange      The up range of Y coordinates.
-     * @param yDownRange    The down range of Y coordinates.
-     * @param rendLeaves    The renderable for the leaves.
-     * @param treeLeaves    The HashMap to store the created leaves.
-     * @param init          The initial angle for the leaves.
+     * @return The jump gust effect, or null if there is none.
      */
-    public static void createLeaves(int xLeftRange, int xRightRange, int yUpRange, int yDownRange,
-                                    RectangleRenderable rendLeaves,
-                                    HashMap<TreeLeaves, TreeFruits> treeLeaves, float init) {
-        Random random = new Random();
-        for (int k = xLeftRange; k < xRightRange; k+= Block.SIZE) {
-            for (int l = yUpRange; l < yDownRange; l+=Block.SIZE) {
-                if(random.nextInt(10) > 8){
-                    TreeLeaves oneLeaf = new TreeLeaves(new Vector2(k ,l),new Vector2
-                            (Block.SIZE-1,Block.SIZE-1), rendLeaves);
-                    Transition<Float> angleTrans = new Transition<>(oneLeaf,
-                            oneLeaf.renderer()::setRenderableAngle,
-                            init, -init, Transition.LINEAR_INTERPOLATOR_FLOAT,
-                            TRANSATION_TIME, Transition.TransitionType.TRANSITION_BACK_AND_FORTH, null);
-                    new ScheduledTask(oneLeaf, WAIT_TIME, true, () -> {
-                        if(oneLeaf.renderer().getRenderableAngle() == 0){
-                            oneLeaf.renderer().setRenderableAngle(WIND_ANGLE);
-                            oneLeaf.setDimensions(leafSize);
-                        }
-                        else {
-                            oneLeaf.renderer().setRenderableAngle(0);
-                            oneLeaf.setDimensions(new Vector2(Block.SIZE, Block.SIZE));
-                        }
-                    } );
-                    oneLeaf.addComponent(angleTrans);
-                    treeLeaves.put(oneLeaf, null);
-                }
-            }
-        }
+    JumpGusts.Effect getJumpGust() {
+        return jumpGust;
     }
 
     /**
-     * Updates the leaf GameObject.
-     * If the avatar is jumping, it initiates a transition to change the angle of the leaf (90 deg).
+     * Sets the jump gust effect running on the leaf.
      *
-     * @param deltaTime The time elapsed since the last update.
+     * @param jumpGust The jump gust effect, or null if there is none.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        if (Avatar.isJumping){
-            new Transition<>(this,
-                    this.renderer()::setRenderableAngle,
-                    STARTING_DEG, FINAL_DEG, Transition.LINEAR_INTERPOLATOR_FLOAT,
-                    TRANSATION_TIME, Transition.TransitionType.TRANSITION_ONCE, null);
-        }
+    void setJumpGust(JumpGusts.Effect jumpGust) {
+        this.jumpGust = jumpGust;
     }
 }
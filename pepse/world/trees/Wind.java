@@ -0,0 +1,228 @@
+package pepse.world.trees;
+
+import danogl.util.Vector2;
+import pepse.util.WorldHash;
+import pepse.world.Block;
+
+import java.util.Arrays;
+
+/**
+ * Moves all the tree leaves in the world.
+ * The sway of each leaf (back and forth between its angle and the opposite angle) and the periodic
+ * 45 degrees gust are calculated from one shared clock in a single loop over primitive arrays, instead
+ * of every leaf running its own transition and scheduled task. Only the leaves near the camera are
+ * updated, the ones far from it pick up the right angle from the clock when they come back into view.
+ */
+public class Wind {
+
+    /**
+     * The time it takes a leaf to sway from its angle to the opposite angle.
+     */
+    private static final float SWAY_TIME = 0.6f;
+
+    /**
+     * The time between two changes of the gust state of a leaf.
+     */
+    private static final float GUST_TIME = 5.0f;
+
+    /**
+     * The angle added to a leaf while the gust blows on it.
+     */
+    private static final float GUST_ANGLE = 45;
+
+    /**
+     * The size of a leaf once the gust started changing it.
+     */
+    private static final Vector2 GUST_LEAF_SIZE = new Vector2(Block.SIZE, Block.SIZE);
+
+    /**
+     * The initial capacity of the arrays.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The size state of a leaf that the gust hasn't changed yet.
+     */
+    private static final byte SIZE_INITIAL = 0;
+
+    /**
+     * The size state of a leaf while the gust blows on it.
+     */
+    private static final byte SIZE_GUST = 1;
+
+    /**
+     * The size state of a leaf between two gusts.
+     */
+    private static final byte SIZE_CALM = 2;
+
+    /**
+     * The leaves moved by the wind, the first count cells are used.
+     */
+    private TreeLeaves[] leaves = new TreeLeaves[INITIAL_CAPACITY];
+
+    /**
+     * The x-coordinate of each leaf, used to skip the leaves far from the camera.
+     */
+    private float[] positions = new float[INITIAL_CAPACITY];
+
+    /**
+     * The angle each leaf sways from.
+     */
+    private float[] angles = new float[INITIAL_CAPACITY];
+
+    /**
+     * The clock time each leaf's sway and gust cycle started at, made from its position.
+     */
+    private float[] phases = new float[INITIAL_CAPACITY];
+
+    /**
+     * The current size state of each leaf.
+     */
+    private byte[] sizeStates = new byte[INITIAL_CAPACITY];
+
+    /**
+     * The number of leaves moved by the wind.
+     */
+    private int count = 0;
+
+    /**
+     * The time since the wind was created.
+     */
+    private float time = 0;
+
+    /**
+     * The gusts the avatar's jumps start on the leaves.
+     */
+    private final JumpGusts jumpGusts = new JumpGusts();
+
+    /**
+     * Adds a leaf to the wind. The leaf picks up its sway and gust cycle where the wind clock is,
+     * so a leaf that was asleep goes on as if it had been moving all along.
+     *
+     * @param leaf The leaf.
+     */
+    public void add(TreeLeaves leaf){
+        if (this.count == this.leaves.length){
+            int capacity = this.count * 2;
+            this.leaves = Arrays.copyOf(this.leaves, capacity);
+            this.positions = Arrays.copyOf(this.positions, capacity);
+            this.angles = Arrays.copyOf(this.angles, capacity);
+            this.phases = Arrays.copyOf(this.phases, capacity);
+            this.sizeStates = Arrays.copyOf(this.sizeStates, capacity);
+        }
+        this.leaves[this.count] = leaf;
+        this.positions[this.count] = leaf.getTopLeftCorner().x();
+        this.angles[this.count] = leaf.getSwayAngle();
+        this.phases[this.count] = phaseOf(leaf.getTopLeftCorner());
+        this.sizeStates[this.count] = SIZE_INITIAL;
+        leaf.setWindSlot(this.count);
+        this.count++;
+    }
+
+    /**
+     * Returns the clock time the cycle of a leaf started at. It depends only on the cell of the leaf,
+     * so it is the same every time the leaf is added, and the leaves of a tree don't move together.
+     *
+     * @param topLeftCorner The top-left corner of the leaf.
+     * @return A time within one gust cycle before the clock started.
+     */
+    private static float phaseOf(Vector2 topLeftCorner){
+        int column = Math.floorDiv((int) topLeftCorner.x(), Block.SIZE);
+        int row = Math.floorDiv((int) topLeftCorner.y(), Block.SIZE);
+        return -WorldHash.unit(0, column, row) * 2 * GUST_TIME;
+    }
+
+    /**
+     * Removes a leaf from the wind. The last leaf takes its place so the arrays stay packed.
+     *
+     * @param leaf The leaf.
+     */
+    public void remove(TreeLeaves leaf){
+        int slot = leaf.getWindSlot();
+        if (slot < 0){
+            return;
+        }
+        this.jumpGusts.stop(leaf);
+        int last = this.count - 1;
+        this.leaves[slot] = this.leaves[last];
+        this.positions[slot] = this.positions[last];
+        this.angles[slot] = this.angles[last];
+        this.phases[slot] = this.phases[last];
+        this.sizeStates[slot] = this.sizeStates[last];
+        this.leaves[slot].setWindSlot(slot);
+        this.leaves[last] = null;
+        leaf.setWindSlot(-1);
+        this.count = last;
+    }
+
+    /**
+     * Starts the jump gust on a leaf, it turns the leaf by 90 degrees. A leaf has at most one jump gust,
+     * starting it again restarts the one that is running. Leaves that aren't in the wind (they are asleep)
+     * don't get a gust.
+     *
+     * @param leaf The leaf.
+     */
+    public void startJumpGust(TreeLeaves leaf){
+        if (leaf.getWindSlot() >= 0){
+            this.jumpGusts.start(leaf);
+        }
+    }
+
+    /**
+     * Returns the number of jump gusts that are running.
+     *
+     * @return The number of running jump gusts.
+     */
+    public int activeJumpGusts(){
+        return this.jumpGusts.activeCount();
+    }
+
+    /**
+     * Returns the number of leaves moved by the wind.
+     *
+     * @return The number of leaves.
+     */
+    public int size(){
+        return this.count;
+    }
+
+    /**
+     * Advances the wind clock and moves the leaves that can be seen between the given x-coordinates.
+     * Leaves with a running jump gust are turned by the gust instead.
+     *
+     * @param deltaTime The time elapsed since the last update.
+     * @param minX      The left edge of the visible area.
+     * @param maxX      The right edge of the visible area.
+     */
+    public void update(float deltaTime, float minX, float maxX){
+        this.time += deltaTime;
+        for (int i = 0; i < this.count; i++) {
+            float x = this.positions[i];
+            if (x + Block.SIZE < minX || x > maxX){
+                continue;
+            }
+            float elapsed = this.time - this.phases[i];
+            // back and forth: from the angle to the opposite angle and back again.
+            float swayProgress = elapsed / SWAY_TIME % 2;
+            if (swayProgress > 1){
+                swayProgress = 2 - swayProgress;
+            }
+            float angle = this.angles[i] * (1 - 2 * swayProgress);
+            int gusts = (int) (elapsed / GUST_TIME);
+            byte sizeState = gusts == 0 ? SIZE_INITIAL : gusts % 2 == 1 ? SIZE_GUST : SIZE_CALM;
+            if (sizeState == SIZE_GUST){
+                angle += GUST_ANGLE;
+            }
+            TreeLeaves leaf = this.leaves[i];
+            if (leaf.getJumpGust() != null){
+                continue;
+            }
+            if (sizeState != this.sizeStates[i]){
+                this.sizeStates[i] = sizeState;
+                leaf.setDimensions(GUST_LEAF_SIZE);
+            }
+            leaf.renderer().setRenderableAngle(angle);
+        }
+        this.jumpGusts.update(deltaTime);
+    }
+}